@@ -7,6 +7,56 @@ public class Setting {
 
     public static final float GRAVITY = 8;
     public static final float WHEEL_TORQUE = 40;
-}
 
+    // Машина, см. PlayerBody. Все, от чего зависит оседание машины, входит в ключ SettleCache
+    public static final float CAR_RESTITUTION = 0.3f;
+    public static final float CAR_DENSITY = 1;
+    public static final float WHEEL_RADIUS = 22;
+    public static final float WHEEL_RESTITUTION = 0.2f;
+    public static final float WHEEL_FRICTION = 0.9f;
+    public static final float WHEEL_DENSITY = 0.4f;
+    public static final float WHEEL_ANGULAR_DAMPING = 1;
+    // Оси колес относительно корпуса, в пикселях
+    public static final float FRONT_WHEEL_X = 62;
+    public static final float REAR_WHEEL_X = -68;
+    public static final float WHEEL_Y = 18;
+    // Сколько шагов по 1 / PHYSICS_STEP_RATE машина оседает на землю при сборке уровня
+    public static final int SETTLE_STEPS = 60;
+
+    // Фиксированный шаг физики: мир всегда шагает на 1 / PHYSICS_STEP_RATE,
+    // позиции актёров интерполируются между двумя последними состояниями Box2D
+    public static final boolean FIXED_TIMESTEP = true;
+    public static final int PHYSICS_STEP_RATE = 60;
+    // Максимум шагов за кадр, чтобы после подвисания не уходить в "спираль смерти"
+    public static final int MAX_PHYSICS_SUBSTEPS = 4;
+
+    // Итерации решателя Box2D: минимум в воздухе, максимум на земле, см. SolverQuality
+    public static final boolean ADAPTIVE_SOLVER = true;
+    public static final int VELOCITY_ITERATIONS_MIN = 4;
+    public static final int VELOCITY_ITERATIONS_MAX = 10;
+    public static final int POSITION_ITERATIONS_MIN = 3;
+    public static final int POSITION_ITERATIONS_MAX = 10;
+    // Если сглаженное по ~10 кадрам время кадра дольше, итерации на земле снижаются до середины диапазона:
+    // точность режется, только когда игра реально не держит 60 FPS (кадр 16.7 мс с запасом на дрожание)
+    public static final float FRAME_BUDGET_MS = 20;
 
+    // Земля собирается в статические тела по участкам карты такой ширины (в пикселях, 0 - одно тело)
+    public static final boolean MERGE_TERRAIN_BODIES = true;
+    public static final float TERRAIN_CHUNK_WIDTH = 800;
+    // Треугольники земли и корпуса склеиваются в выпуклые куски до 8 вершин
+    public static final boolean MERGE_CONVEX_PIECES = true;
+    // Тела земли дальше этого расстояния от машины (в пикселях) выключаются, см. TerrainActivation
+    public static final boolean TERRAIN_ACTIVATION = true;
+    public static final float TERRAIN_ACTIVE_MARGIN = 1200;
+
+    // Картинки фона уровня из level.bin подгружаются по мере движения камеры
+    public static final boolean STREAM_LEVEL_IMAGES = true;
+    // Сколько слоев картинок держать загруженными одновременно
+    public static final int RESIDENT_IMAGE_LAYERS = 4;
+    // За сколько пикселей до края экрана слой начинает грузиться; выгружается вдвое дальше
+    public static final float IMAGE_PRELOAD_DISTANCE = 400;
+
+    // Сколько AssetManager может занимать поток рендера за кадр. update() вызывается один раз
+    // за кадр в TRONgame.render, бюджет общий для ассетов игры, уровня, предзагрузки и фона
+    public static final int ASSET_FRAME_BUDGET_MS = 10;
+}
@@ -22,16 +22,24 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.utils.I18NBundle;
 import com.boontaran.games.StageGame;
 import ru.schneider_dev.tronfg.levels.Level;
+import ru.schneider_dev.tronfg.levels.LevelLoader;
+import ru.schneider_dev.tronfg.media.FontCache;
+import ru.schneider_dev.tronfg.media.LocalizedAtlas;
 import ru.schneider_dev.tronfg.media.Media;
+import ru.schneider_dev.tronfg.media.TextureFormats;
+import ru.schneider_dev.tronfg.player.Player;
 import ru.schneider_dev.tronfg.screens.IntroScreen;
 import ru.schneider_dev.tronfg.screens.LevelList;
 import ru.schneider_dev.tronfg.screens.GameCompletedScreen;
 import ru.schneider_dev.tronfg.screens.ScoreScreen;
 import ru.schneider_dev.tronfg.utils.Data;
 import ru.schneider_dev.tronfg.utils.ScreenScaler;
+import ru.schneider_dev.tronfg.media.Regions;
 
 
 import java.util.Locale;
@@ -45,7 +53,7 @@ public class TRONgame extends Game {
     private boolean loadingAssets = false;
     private AssetManager assetManager;
 
-    public static TextureAtlas atlas;
+    public static LocalizedAtlas atlas;
     public static BitmapFont font40;
     public static BitmapFont tr2nFont;
     public static BitmapFont font24;
@@ -63,6 +71,7 @@ public class TRONgame extends Game {
     private GameCallback gameCallback;
 
     public static Media media;
+    public static FontCache fonts;
     private IntroScreen introScreen;
     private LevelList levelList;
     private Level level;
@@ -70,6 +79,10 @@ public class TRONgame extends Game {
     private ScoreScreen scoreScreen;
     private int lastLevelId;
 
+    // Предзагрузка следующего уровня
+    private LevelLoader nextLevelLoader;
+    private int nextLevelId;
+
     // Массив с именами игровой музыки для случайного выбора
     public static final String[] GAME_MUSIC = {"new_music1.ogg", "new_music2.ogg", "new_music3.ogg", "new_music4.ogg", "new_music5.ogg"};
     private static final Random random = new Random();
@@ -95,13 +108,13 @@ public class TRONgame extends Game {
         Level newLevel;
         switch (id) {
             case 1:
-                newLevel = new Level("level1");
+                newLevel = new Level("level1", takeLevelLoader(id));
                 break;
             case 2:
-                newLevel = new Level("level2");
+                newLevel = new Level("level2", takeLevelLoader(id));
                 break;
             default:
-                newLevel = new Level("level" + id);
+                newLevel = new Level("level" + id, takeLevelLoader(id));
                 break;
         }
 
@@ -110,6 +123,39 @@ public class TRONgame extends Game {
         return newLevel;
     }
 
+    /**
+     * Загрузчик уровня: предзагруженный, если он есть для этого уровня, иначе новый
+     */
+    private LevelLoader takeLevelLoader(int id) {
+        if (nextLevelLoader != null && nextLevelId == id) {
+            LevelLoader loader = nextLevelLoader;
+            nextLevelLoader = null;
+            return loader;
+        }
+        cancelPreload();
+        return new LevelLoader(assetManager, "level" + id, Player.getHull(Regions.ROVER_MODEL));
+    }
+
+    /**
+     * Начинает грузить следующий уровень, пока игрок смотрит на экран "уровень пройден"
+     */
+    private void preloadLevel(int id) {
+        if (nextLevelLoader != null && nextLevelId == id) return;
+        cancelPreload();
+
+        nextLevelId = id;
+        nextLevelLoader = new LevelLoader(assetManager, "level" + id, Player.getHull(Regions.ROVER_MODEL));
+        nextLevelLoader.start();
+        Gdx.app.log("TRONgame", "📦 Preloading level" + id);
+    }
+
+    private void cancelPreload() {
+        if (nextLevelLoader != null) {
+            nextLevelLoader.dispose();
+            nextLevelLoader = null;
+        }
+    }
+
     /**
      * Создает уровень с новой случайной музыкой (отличной от предыдущей)
      * @param id идентификатор уровня
@@ -143,18 +189,22 @@ public class TRONgame extends Game {
         
         // Всегда используем альбомную ориентацию
         StageGame.setAppSize((int)baseWidth, (int)baseHeight);
+        TextureFormats.init();
                 
                 Gdx.input.setCatchBackKey(true);
                 
                 Locale locale = Locale.getDefault();
         bundle = I18NBundle.createBundle(Gdx.files.internal("MyBundle"), locale);
+        // Наложение языка с картинками-надписями есть, только если у языка такие картинки есть
         path_to_atlas = bundle.get("path");
+        if (!Gdx.files.internal(path_to_atlas).exists()) path_to_atlas = null;
 
 
         loadingAssets = true;
         assetManager = new AssetManager();
 
-        assetManager.load(path_to_atlas, TextureAtlas.class);
+        assetManager.load(LocalizedAtlas.SHARED_PATH, TextureAtlas.class);
+        if (path_to_atlas != null) assetManager.load(path_to_atlas, TextureAtlas.class);
 
         assetManager.load("musics/new_menu.ogg", Music.class);
         assetManager.load("musics/new_music1.ogg", Music.class);
@@ -174,22 +224,15 @@ public class TRONgame extends Game {
         FileHandleResolver resolver = new InternalFileHandleResolver();
         assetManager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
         assetManager.setLoader(BitmapFont.class, new FreetypeFontLoader(resolver));
+        assetManager.setLoader(TiledMap.class, new TmxMapLoader(resolver));
 
-        FreetypeFontLoader.FreeTypeFontLoaderParameter sizeParams = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
-        sizeParams.fontFileName = "fonts/GROBOLD.ttf";
-        sizeParams.fontParameters.size = 40;
-        assetManager.load("font40.ttf", BitmapFont.class, sizeParams);
-
-        // Загружаем шрифт GROBOLD меньшего размера для цифр на уровнях
-        FreetypeFontLoader.FreeTypeFontLoaderParameter sizeParams24 = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
-        sizeParams24.fontFileName = "fonts/GROBOLD.ttf";
-        sizeParams24.fontParameters.size = 24;
-        assetManager.load("font24.ttf", BitmapFont.class, sizeParams24);
-
-        FreetypeFontLoader.FreeTypeFontLoaderParameter tr2nParams = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
-        tr2nParams.fontFileName = "fonts/Tr2n.ttf";
-        tr2nParams.fontParameters.size = 48;
-        assetManager.load("tr2nFont.ttf", BitmapFont.class, tr2nParams);
+        fonts = new FontCache(assetManager);
+        fonts.load(FontCache.GROBOLD, 40);
+        // Шрифт GROBOLD меньшего размера для цифр на уровнях и таймера уровня
+        fonts.load(FontCache.GROBOLD, 24);
+        // Надпись переворота на уровне
+        fonts.load(FontCache.GROBOLD, 30);
+        fonts.load(FontCache.TR2N, 48);
 
         media = new Media(assetManager);
         data = new Data();
@@ -198,11 +241,15 @@ public class TRONgame extends Game {
 
     @Override
     public void render() {
-        if (loadingAssets) {
-            if (assetManager.update()) {
-                loadingAssets = false;
-                onAssetsLoaded();
-            }
+        // Единственный update AssetManager за кадр: ассеты игры, картинки уровня и фона,
+        // предзагрузка следующего уровня делят один бюджет
+        boolean assetsFinished = assetManager.update(Setting.ASSET_FRAME_BUDGET_MS);
+        if (loadingAssets && assetsFinished) {
+            loadingAssets = false;
+            onAssetsLoaded();
+        }
+        if (nextLevelLoader != null) {
+            nextLevelLoader.update();
         }
         super.render();
 
@@ -210,16 +257,20 @@ public class TRONgame extends Game {
 
     @Override
     public void dispose() {
+        fonts.dispose();
+        TextureFormats.dispose();
         assetManager.dispose();
         super.dispose();
     }
 
     private void onAssetsLoaded() {
-        atlas = assetManager.get(path_to_atlas, TextureAtlas.class);
+        atlas = new LocalizedAtlas(assetManager.get(LocalizedAtlas.SHARED_PATH, TextureAtlas.class),
+                path_to_atlas != null ? assetManager.get(path_to_atlas, TextureAtlas.class) : null);
+        Regions.resolve(atlas);
 
-        font40 = assetManager.get("font40.ttf", BitmapFont.class);
-        font24 = assetManager.get("font24.ttf", BitmapFont.class);
-        tr2nFont = assetManager.get("tr2nFont.ttf", BitmapFont.class);
+        font40 = fonts.get(FontCache.GROBOLD, 40);
+        font24 = fonts.get(FontCache.GROBOLD, 24);
+        tr2nFont = fonts.get(FontCache.TR2N, 48);
 
         // Получаем PNG иконки
         shareIcon = new com.badlogic.gdx.graphics.g2d.TextureRegion(
@@ -354,10 +405,12 @@ public class TRONgame extends Game {
             @Override
             public void call(int code) {
                 if (code == Level.ON_RESTART) {
-                    hideLevel();
-                    // При перезапуске создаем новый уровень с новой случайной музыкой
-                    showLevel(lastLevelId);
+                    // При перезапуске уровень сбрасывается на месте с новой случайной музыкой,
+                    // а предзагрузка следующего уровня больше не нужна
+                    cancelPreload();
+                    level.reset(getRandomGameMusic());
                 } else if (code == Level.ON_QUIT) {
+                    cancelPreload();
                     hideLevel();
                     showLevelList();
                 } else if (code == Level.ON_COMPLETED) {
@@ -380,6 +433,10 @@ public class TRONgame extends Game {
                         // При переходе к следующему уровню используем новую случайную музыку
                         showLevel(lastLevelId + 1, currentMusic);
                     }
+                } else if (code == Level.ON_FINISH_REACHED) {
+                    if (lastLevelId < 16) {
+                        preloadLevel(lastLevelId + 1);
+                    }
                 } else if (code == Level.ON_PAUSED) {
                     // Пауза - ничего не делаем
 
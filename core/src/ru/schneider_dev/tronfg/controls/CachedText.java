@@ -0,0 +1,54 @@
+package ru.schneider_dev.tronfg.controls;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+/**
+ * Строка одного цвета, которую актер рисует сам в draw(), без Label.
+ * Раскладка глифов строится в setText() и только если текст или цвет поменялись;
+ * в draw() остаются сдвиг готовых вершин и прозрачность родителя.
+ * <p>
+ * Label внутри делает то же самое, так что TextButton и надписи экранов
+ * переделывать не нужно - это для актеров, которые рисуют текст шрифтом напрямую.
+ */
+public class CachedText {
+
+    private final BitmapFontCache cache;
+    private final Color color = new Color();
+    private String text;
+    private float width, height;
+
+    public CachedText(BitmapFont font) {
+        cache = new BitmapFontCache(font, font.usesIntegerPositions());
+    }
+
+    public void setText(String text, Color color) {
+        if (text.equals(this.text) && color.equals(this.color)) return;
+        this.text = text;
+        this.color.set(color);
+
+        cache.setColor(color);
+        GlyphLayout layout = cache.setText(text, 0, 0);
+        width = layout.width;
+        height = layout.height;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * @param y базовая линия, как у BitmapFont.draw
+     */
+    public void draw(Batch batch, float x, float y, float parentAlpha) {
+        cache.setPosition(x, y);
+        cache.draw(batch, parentAlpha);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.schneider_dev.tronfg.controls;
+
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Надпись HUD с числом, которое меняется каждый кадр (таймеры уровня).
+ * Цифры пишутся в один и тот же буфер без String.format, а текст, размер и позиция
+ * обновляются только когда меняется показываемое значение. В обычном кадре - ни одной аллокации.
+ */
+public class HudLabel extends Label {
+
+    private final StringBuilder buffer = new StringBuilder(32);
+    private int shownValue = Integer.MIN_VALUE;
+
+    private float anchorX, anchorY;
+    private int anchorAlign;
+
+    public HudLabel(CharSequence text, LabelStyle style) {
+        super(text, style);
+    }
+
+    /**
+     * Точка, к которой привязана надпись при любой ширине текста
+     * @param align сторона надписи из {@link com.badlogic.gdx.utils.Align}
+     */
+    public void setAnchor(float x, float y, int align) {
+        anchorX = x;
+        anchorY = y;
+        anchorAlign = align;
+        setPosition(x, y, align);
+    }
+
+    /**
+     * Время в виде MM:SS
+     */
+    public void setTime(float seconds) {
+        int value = (int) seconds;
+        if (value == shownValue) return;
+        shownValue = value;
+
+        buffer.setLength(0);
+        appendPadded(value / 60, 2);
+        buffer.append(':');
+        appendPadded(value % 60, 2);
+        apply();
+    }
+
+    /**
+     * Число с одним знаком после запятой между prefix и suffix, например "UPSIDE DOWN! 2.5s"
+     */
+    public void setTenths(String prefix, float value, String suffix) {
+        int tenths = Math.round(value * 10);
+        if (tenths == shownValue) return;
+        shownValue = tenths;
+
+        buffer.setLength(0);
+        buffer.append(prefix);
+        if (tenths < 0) {
+            buffer.append('-');
+            tenths = -tenths;
+        }
+        appendPadded(tenths / 10, 1);
+        buffer.append('.');
+        buffer.append((char) ('0' + tenths % 10));
+        buffer.append(suffix);
+        apply();
+    }
+
+    private void appendPadded(int value, int digits) {
+        int length = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) length++;
+        for (int i = length; i < digits; i++) buffer.append('0');
+
+        int start = buffer.length();
+        buffer.setLength(start + length);
+        for (int i = start + length - 1; i >= start; i--) {
+            buffer.setCharAt(i, (char) ('0' + value % 10));
+            value /= 10;
+        }
+    }
+
+    private void apply() {
+        setText(buffer);
+        pack();
+        setPosition(anchorX, anchorY, anchorAlign);
+    }
+}
@@ -6,7 +6,7 @@ import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 
-import ru.schneider_dev.tronfg.TRONgame;
+import ru.schneider_dev.tronfg.media.Regions;
 
 
 public class JoyStick extends Group {
@@ -19,17 +19,17 @@ public class JoyStick extends Group {
 
 
     public JoyStick(float minHeight) {
-        idle = new Image(TRONgame.atlas.findRegion("joystick"));
+        idle = new Image(Regions.JOYSTICK.get());
         addActor(idle);
 
         setSize(idle.getWidth(), idle.getHeight());
 
-        right = new Image(TRONgame.atlas.findRegion("joystick_right"));
+        right = new Image(Regions.JOYSTICK_RIGHT.get());
         right.setSize(getWidth(), getHeight());
         right.setPosition(0, 0);
         addActor(right);
         
-        left = new Image(TRONgame.atlas.findRegion("joystick_left"));
+        left = new Image(Regions.JOYSTICK_LEFT.get());
         left.setSize(getWidth(), getHeight());
         left.setPosition(0, 0);
         addActor(left);
@@ -2,7 +2,6 @@ package ru.schneider_dev.tronfg.controls;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
@@ -19,7 +18,9 @@ public class MenuMusicTextButton extends Actor {
     
     private boolean isMuted = false;
     private BitmapFont font;
-    private GlyphLayout layout;
+    // Надписи собираются один раз и пересобираются только при переключении звука
+    private CachedText labelText;
+    private CachedText statusText;
     private ClickListener clickListener;
     
     // Цвета для текста
@@ -30,13 +31,16 @@ public class MenuMusicTextButton extends Actor {
     public MenuMusicTextButton() {
         // Используем шрифт font24 из TRONgame
         this.font = TRONgame.font24;
-        this.layout = new GlyphLayout();
+        labelText = new CachedText(font);
+        labelText.setText("SOUND: ", MUSIC_COLOR);
+        statusText = new CachedText(font);
         
         // Устанавливаем размер актора
         setSize(150, 40);
         
         // Синхронизируем состояние с глобальным
         isMuted = TRONgame.isSoundMuted;
+        updateStatusText();
         
         // Добавляем обработчик кликов
         addListener(new ClickListener() {
@@ -69,7 +73,13 @@ public class MenuMusicTextButton extends Actor {
         return isMuted;
     }
 
+    private void updateStatusText() {
+        statusText.setText(isMuted ? "OFF" : "ON", isMuted ? OFF_COLOR : ON_COLOR);
+    }
+
     private void updateMusicState() {
+        updateStatusText();
+
         // Обновляем глобальное состояние ВСЕХ звуков
         TRONgame.isSoundMuted = isMuted;
         
@@ -114,24 +124,11 @@ public class MenuMusicTextButton extends Actor {
     public void draw(com.badlogic.gdx.graphics.g2d.Batch batch, float parentAlpha) {
         if (!isVisible()) return;
         
-        // Получаем текст для отображения
-        String musicText = "SOUND: ";
-        String statusText = isMuted ? "OFF" : "ON";
-        
-        // Рисуем "MUSIC: " белым цветом
-        font.setColor(MUSIC_COLOR.r, MUSIC_COLOR.g, MUSIC_COLOR.b, MUSIC_COLOR.a * parentAlpha);
-        layout.setText(font, musicText);
         float musicX = getX();
-        float musicY = getY() + (getHeight() + layout.height) / 2;
-        float musicWidth = layout.width; // Сохраняем ширину "MUSIC: "
-        font.draw(batch, layout, musicX, musicY);
-        
-        // Рисуем "ON" или "OFF" соответствующим цветом
-        // Позиционируем после "MUSIC: " с небольшим отступом
-        Color statusColor = isMuted ? OFF_COLOR : ON_COLOR;
-        font.setColor(statusColor.r, statusColor.g, statusColor.b, statusColor.a * parentAlpha);
-        layout.setText(font, statusText);
-        float statusX = musicX + musicWidth + 8; // Позиция после "MUSIC: " с отступом 8 пикселей
-        font.draw(batch, layout, statusX, musicY);
+        float musicY = getY() + (getHeight() + labelText.getHeight()) / 2;
+        labelText.draw(batch, musicX, musicY, parentAlpha);
+
+        // "ON" или "OFF" после надписи с отступом 8 пикселей
+        statusText.draw(batch, musicX + labelText.getWidth() + 8, musicY, parentAlpha);
     }
 }
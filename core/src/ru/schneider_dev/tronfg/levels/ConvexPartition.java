@@ -0,0 +1,122 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.math.EarClippingTriangulator;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+
+/**
+ * Разбивает полигон на выпуклые куски не больше чем из MAX_VERTICES вершин
+ * (алгоритм Hertel-Mehlhorn): сначала ear clipping, затем соседние треугольники
+ * склеиваются по общей диагонали, пока кусок остается выпуклым.
+ */
+public class ConvexPartition {
+
+    // b2_maxPolygonVertices в Box2D
+    public static final int MAX_VERTICES = 8;
+
+    private static final float MIN_AREA = 0.001f;
+    private static final float CONVEX_EPSILON = 1e-6f;
+
+    /**
+     * @param vertices вершины простого полигона (x, y, x, y...)
+     * @return выпуклые куски полигона
+     */
+    public static Array<Polygon> partition(float[] vertices) {
+        ShortArray triangleIds = new EarClippingTriangulator().computeTriangles(vertices);
+
+        Array<IntArray> pieces = new Array<IntArray>();
+        for (int i = 0; i < triangleIds.size; i += 3) {
+            IntArray triangle = new IntArray(new int[]{triangleIds.get(i), triangleIds.get(i + 1), triangleIds.get(i + 2)});
+            float area = signedArea(vertices, triangle);
+            if (Math.abs(area) <= MIN_AREA) continue;
+            if (area < 0) triangle.reverse();
+            pieces.add(triangle);
+        }
+
+        // Жадно убираем диагонали, пока есть что склеить
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < pieces.size && !merged; i++) {
+                for (int j = i + 1; j < pieces.size && !merged; j++) {
+                    IntArray joined = join(vertices, pieces.get(i), pieces.get(j));
+                    if (joined != null) {
+                        pieces.set(i, joined);
+                        pieces.removeIndex(j);
+                        merged = true;
+                    }
+                }
+            }
+        }
+
+        Array<Polygon> result = new Array<Polygon>(pieces.size);
+        for (IntArray piece : pieces) {
+            float[] points = new float[piece.size * 2];
+            for (int k = 0; k < piece.size; k++) {
+                points[k * 2] = vertices[piece.get(k) * 2];
+                points[k * 2 + 1] = vertices[piece.get(k) * 2 + 1];
+            }
+            result.add(new Polygon(points));
+        }
+        return result;
+    }
+
+    /**
+     * Склеивает два куска по общему ребру
+     * @return новый кусок или null, если общего ребра нет или результат невыпуклый/слишком большой
+     */
+    private static IntArray join(float[] vertices, IntArray p, IntArray q) {
+        if (p.size + q.size - 2 > MAX_VERTICES) return null;
+
+        // В p ребро идет a -> b, в q (тоже против часовой) - b -> a
+        for (int i = 0; i < p.size; i++) {
+            int a = p.get(i);
+            int b = p.get((i + 1) % p.size);
+
+            for (int j = 0; j < q.size; j++) {
+                if (q.get(j) != b || q.get((j + 1) % q.size) != a) continue;
+
+                IntArray result = new IntArray(p.size + q.size - 2);
+                // p от b по кругу до a
+                for (int k = 0; k < p.size; k++) {
+                    result.add(p.get((i + 1 + k) % p.size));
+                }
+                // q после a до b, не включая их самих
+                for (int k = 2; k < q.size; k++) {
+                    result.add(q.get((j + k) % q.size));
+                }
+
+                return isConvex(vertices, result) ? result : null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isConvex(float[] vertices, IntArray piece) {
+        int n = piece.size;
+        for (int k = 0; k < n; k++) {
+            int i0 = piece.get(k) * 2;
+            int i1 = piece.get((k + 1) % n) * 2;
+            int i2 = piece.get((k + 2) % n) * 2;
+
+            float cross = (vertices[i1] - vertices[i0]) * (vertices[i2 + 1] - vertices[i1 + 1])
+                    - (vertices[i1 + 1] - vertices[i0 + 1]) * (vertices[i2] - vertices[i1]);
+            if (cross < -CONVEX_EPSILON) return false;
+        }
+        return true;
+    }
+
+    private static float signedArea(float[] vertices, IntArray piece) {
+        float area = 0;
+        int n = piece.size;
+        for (int k = 0; k < n; k++) {
+            int i0 = piece.get(k) * 2;
+            int i1 = piece.get((k + 1) % n) * 2;
+            area += vertices[i0] * vertices[i1 + 1] - vertices[i1] * vertices[i0 + 1];
+        }
+        return area / 2;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.utils.StringBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Время частей кадра уровня за последние FRAMES кадров: физика, act сцен, отрисовка.
+ * Замеры System.nanoTime складываются за кадр в current и в endFrame() уходят в кольцевые буферы;
+ * min, среднее и p99 считаются только когда оверлей обновляет текст.
+ * <p>
+ * Создается в Level только с Setting.DEBUG_GAME, иначе все замеры отрезает компилятор.
+ * Число сборок мусора на Android через java.lang.management не узнать, поэтому считается
+ * оценка - сколько раз занятая куча уменьшилась между кадрами.
+ */
+public class FrameProfiler {
+
+    public static final int STEP = 0;
+    public static final int UPDATE = 1;
+    public static final int STAGE_ACT = 2;
+    public static final int OVERLAY_ACT = 3;
+    public static final int DRAW = 4;
+    public static final int BACKGROUND = 5;
+    public static final int FRAME = 6;
+    public static final int SECTION_COUNT = 7;
+
+    private static final String[] NAMES = {"world.step", "update", "stage.act", "overlay.act", "draw", "background", "frame"};
+
+    // 4 секунды при 60 FPS
+    public static final int FRAMES = 240;
+
+    private final long[][] samples = new long[SECTION_COUNT][FRAMES];
+    private final long[] current = new long[SECTION_COUNT];
+    private final long[] sorted = new long[FRAMES];
+    private int frame;
+    private int count;
+
+    private long usedHeap;
+    private int gcCount;
+
+    /**
+     * Добавляет время к части текущего кадра (world.step может быть несколько раз за кадр)
+     */
+    public void add(int section, long nanos) {
+        current[section] += nanos;
+    }
+
+    public void endFrame() {
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            samples[s][frame] = current[s];
+            current[s] = 0;
+        }
+        frame = (frame + 1) % FRAMES;
+        if (count < FRAMES) count++;
+
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        if (used < usedHeap) gcCount++;
+        usedHeap = used;
+    }
+
+    /**
+     * Сортирует замеры части в sorted
+     * @return сколько замеров
+     */
+    private int sort(int section) {
+        System.arraycopy(samples[section], 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        return count;
+    }
+
+    /**
+     * Пишет по строке на часть кадра: min, среднее и p99 в микросекундах
+     */
+    public void appendReport(StringBuilder text) {
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            int n = sort(s);
+            if (n == 0) continue;
+
+            long sum = 0;
+            for (int i = 0; i < n; i++) sum += sorted[i];
+
+            text.append(NAMES[s])
+                    .append("  min ").append((int) (sorted[0] / 1000))
+                    .append("  avg ").append((int) (sum / n / 1000))
+                    .append("  p99 ").append((int) (sorted[(n - 1) * 99 / 100] / 1000))
+                    .append(" us\n");
+        }
+        text.append("heap ").append((int) (usedHeap / (1024 * 1024))).append(" MB, gc ~").append(gcCount).append('\n');
+    }
+
+    public long getUsedHeap() {
+        return usedHeap;
+    }
+
+    public int getGcCount() {
+        return gcCount;
+    }
+}
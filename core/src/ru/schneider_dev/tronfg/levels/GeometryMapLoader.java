@@ -0,0 +1,41 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.ImageResolver;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Загружает TMX без текстур: слои картинок получают пустые регионы.
+ * Нужен для {@link LevelSimulation} без GL-контекста (headless backend).
+ */
+public class GeometryMapLoader extends TmxMapLoader {
+
+    // Пустой регион -> путь к картинке, которую он заменяет
+    private final ObjectMap<TextureRegion, String> imagePaths = new ObjectMap<TextureRegion, String>();
+
+    private final ImageResolver emptyImages = new ImageResolver() {
+        @Override
+        public TextureRegion getImage(String name) {
+            TextureRegion region = new TextureRegion();
+            imagePaths.put(region, name);
+            return region;
+        }
+    };
+
+    public TiledMap loadGeometry(String fileName) {
+        FileHandle tmxFile = resolve(fileName);
+        root = xml.parse(tmxFile);
+        return loadTiledMap(tmxFile, new Parameters(), emptyImages);
+    }
+
+    /**
+     * @return путь к файлу картинки, вместо которой в карту попал пустой регион
+     */
+    public String getImagePath(TextureRegion region) {
+        return imagePaths.get(region);
+    }
+}
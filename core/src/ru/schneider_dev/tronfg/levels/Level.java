@@ -2,37 +2,34 @@ package ru.schneider_dev.tronfg.levels;
 
 
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Texture.TextureFilter;
-import com.badlogic.gdx.maps.MapLayer;
-import com.badlogic.gdx.maps.MapObject;
-import com.badlogic.gdx.maps.MapObjects;
-import com.badlogic.gdx.maps.MapProperties;
-import com.badlogic.gdx.maps.objects.PolygonMapObject;
-import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
-import com.badlogic.gdx.math.EarClippingTriangulator;
-import com.badlogic.gdx.math.Polygon;
-import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.*;
-import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
+import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ShortArray;
+import com.badlogic.gdx.utils.StringBuilder;
 import com.boontaran.MessageListener;
 import com.boontaran.games.StageGame;
-import com.boontaran.games.tiled.TileLayer;
 import ru.schneider_dev.tronfg.Setting;
 import ru.schneider_dev.tronfg.TRONgame;
 import ru.schneider_dev.tronfg.controls.CButton;
+import ru.schneider_dev.tronfg.controls.HudLabel;
 import ru.schneider_dev.tronfg.controls.JoyStick;
-import ru.schneider_dev.tronfg.player.IBody;
+import ru.schneider_dev.tronfg.media.FontCache;
+import ru.schneider_dev.tronfg.media.Regions;
 import ru.schneider_dev.tronfg.player.Player;
+import ru.schneider_dev.tronfg.player.PlayerState;
 import ru.schneider_dev.tronfg.player.UserData;
 import ru.schneider_dev.tronfg.screens.LevelCompletedScreen;
 import ru.schneider_dev.tronfg.screens.LevelFailedScreen;
@@ -46,13 +43,18 @@ public class Level extends StageGame {
     private String directory;
     private int levelId;
 
-    public static final float WORLD_SCALE = 40;
+    public static final float WORLD_SCALE = LevelSimulation.WORLD_SCALE;
     public static final int ON_RESTART = 1;
     public static final int ON_QUIT = 2;
     public static final int ON_COMPLETED = 3;
     public static final int ON_FAILED = 4;
     public static final int ON_PAUSED = 5;
     public static final int ON_RESUME = 6;
+    public static final int ON_FINISH_REACHED = 7; // финиш пройден, экран результата еще показывается
+
+    // Шрифты таймеров: берутся из FontCache в конструкторе и отдаются в dispose(), reset() их не трогает
+    private static final int TIMER_FONT_SIZE = 30;
+    private static final int LEVEL_TIMER_FONT_SIZE = 24;
 
     private static final int PLAY = 1;
     private static final int LEVEL_FAILED = 2;
@@ -61,13 +63,18 @@ public class Level extends StageGame {
 
     private int state = 1;
 
-    private int mapWidth, mapHeight, tilePixelWidth, tilePixelHeight, levelWidth, levelHeight;
+    private int levelWidth, levelHeight;
 
+    private LevelSimulation simulation;
     private Player player;
-    private Body finish;
+    // Тела с актерами и их UserData, см. collectActorBodies
+    private Body[] actorBodies = new Body[0];
+    private UserData[] actorData = new UserData[0];
 
     private boolean moveFrontKey, moveBackKey;
     private Label pleaseWait;
+    private Image loadingWheel;
+    private int loadingPercent = -1;
 
     private JoyStick joyStick;
     private CButton jumpBackBtn, jumpForwardBtn;
@@ -79,30 +86,42 @@ public class Level extends StageGame {
 
     private String customBackground = null;
 
-    private static final float LAND_RESTITUTION = 0.5f;
-    private World world;
     private Box2DDebugRenderer debugRenderer;
-    private Array<Body> bodies = new Array<Body>();
 
     private boolean hasBeenBuilt = false;
 
     private TiledMap map;
+    private LevelLoader loader;
+    private LevelData levelData;
+
+    // Время до первого кадра: от создания уровня до первого render после build
+    private long createdAt;
+    private long buildTime;
+    private boolean firstFrameLogged = false;
+
+    private LevelBackground background;
+    // Счетчик вызовов GL, включается только с Setting.DEBUG_GAME
+    private GLProfiler glProfiler;
+    private int renderStatsFrames;
+    private int drawCalls;
+
+    // Профайлер кадра и его оверлей, только с Setting.DEBUG_GAME.
+    // Показать/скрыть - F3 или касание таймера уровня
+    private FrameProfiler profiler;
+    private Label profilerLabel;
+    private final StringBuilder profilerText = new StringBuilder(512);
+    private float profilerRefresh;
 
     private LevelCompletedScreen levelCompletedScreen;
     private LevelFailedScreen levelFailedScreen;
     private PausedScreen pausedScreen;
 
-    // Переменные для таймера переворота
-    private boolean isTimerRunning = false;
-    private float upsideDownTimer = 0f;
-    private static final float UPSIDE_DOWN_TIMEOUT = 2.0f; // 2 секунды
-
     // Переменные для отображения текста таймера
-    private com.badlogic.gdx.scenes.scene2d.ui.Label timerLabel;
+    private HudLabel timerLabel;
     private com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle timerStyle;
 
     // Переменные для таймера прохождения уровня
-    private com.badlogic.gdx.scenes.scene2d.ui.Label levelTimerLabel;
+    private HudLabel levelTimerLabel;
     private com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle levelTimerStyle;
     private float levelTimer = 0f;
     private boolean levelTimerRunning = false;
@@ -110,8 +129,14 @@ public class Level extends StageGame {
     // Коэффициент масштабирования камеры (больше значение = больше отдаление)
     private static final float CAMERA_ZOOM_FACTOR = 1.0f; // 1.0 = нормальный масштаб, 1.3 = отдаление на 30%
 
-    public Level(String directory) {
+    /**
+     * @param directory папка уровня в tiled/
+     * @param loader    загрузчик уровня; если он уже все подготовил (предзагрузка), уровень строится сразу
+     */
+    public Level(String directory, LevelLoader loader) {
+        createdAt = System.nanoTime();
         this.directory = directory;
+        this.loader = loader;
         this.levelId = extractLevelId(directory);
 
         // Создаем Label с текстом "LOADING..." вместо изображения
@@ -134,64 +159,108 @@ public class Level extends StageGame {
         // Инициализируем стиль текста таймера
         initTimerStyle();
 
-        delayCall("build_level", 0.2f);
+        if (loader.isReady()) {
+            build();
+            removeOverlayChild(pleaseWait);
+        } else {
+            // Уровень догружается в update() по кадрам, пока крутится индикатор
+            loader.start();
+            showLoadingIndicator();
+        }
+    }
+
+    /**
+     * Крутящееся колесо над мигающей надписью с процентами загрузки
+     */
+    private void showLoadingIndicator() {
+        loadingWheel = new Image(Regions.FRONT_WHEEL.get());
+        loadingWheel.setOrigin(loadingWheel.getWidth() / 2, loadingWheel.getHeight() / 2);
+        loadingWheel.addAction(Actions.forever(Actions.rotateBy(-360, 1f)));
+        addOverlayChild(loadingWheel);
+
+        pleaseWait.addAction(Actions.forever(Actions.sequence(Actions.alpha(0.4f, 0.5f), Actions.alpha(1, 0.5f))));
+        updateLoadingIndicator();
     }
 
-    @Override
-    protected void onDelayCall(String code) {
-        if (code.equals("build_level")) {
-            build();
+    private void updateLoadingIndicator() {
+        int percent = (int) (loader.getProgress() * 100);
+        if (percent == loadingPercent) return;
+        loadingPercent = percent;
 
-            removeOverlayChild(pleaseWait);
+        pleaseWait.setText("LOADING " + percent + "%");
+        pleaseWait.pack();
+        centerActorXY(pleaseWait);
+
+        loadingWheel.setPosition((getWidth() - loadingWheel.getWidth()) / 2, pleaseWait.getY() + pleaseWait.getHeight() + 20);
+    }
 
-        } else if (code.equals("resumeLevel2")) {
+    private void hideLoadingIndicator() {
+        removeOverlayChild(pleaseWait);
+        if (loadingWheel != null) {
+            removeOverlayChild(loadingWheel);
+            loadingWheel = null;
+        }
+    }
+
+    @Override
+    protected void onDelayCall(String code) {
+        if (code.equals("resumeLevel2")) {
             resumeLevel2();
 
         }
     }
 
-    private void setBackGround(String region) {
+    private void setBackGround(Regions.Region region) {
         clearBackground();
-        Image bg = new Image(TRONgame.atlas.findRegion(region));
+        Image bg = new Image(region.get());
         addBackground(bg, true, false);
     }
 
 
     private void build() {
         hasBeenBuilt = true;
+        long buildStart = System.nanoTime();
 
-        world = new World(new Vector2(0, -Setting.GRAVITY), true);
-        world.setContactListener(contactListener);
         debugRenderer = new Box2DDebugRenderer();
 
-        loadMap("tiled/" + directory + "/level.tmx");
-
-        if (player == null) {
-            throw new Error("player not defined");
-        }
-        if (finish == null) {
-            throw new Error("finish not defined");
+        if (!loader.isReady()) {
+            loader.finishLoading();
         }
+        map = loader.getMap();
+        levelData = loader.getData();
+        addBackground();
+
+        // Машина оседает на землю один раз, дальше положение берется из кэша
+        PlayerState settled = loader.getSettledState();
 
-        addRectangleLand(new Rectangle(-10, 0, 10, levelHeight));
-        addRectangleLand(new Rectangle(levelWidth + 10, 0, 10, levelHeight));
+        simulation = new LevelSimulation();
+        simulation.setListener(simulationListener);
+        simulation.build(levelData, loader.getHull(), settled);
 
-        int count = 60;
-        while (count-- > 0) {
-            world.step(1f / 60, 10, 10);
+        if (settled == null) {
+            SettleCache.write(SettleCache.file(directory), loader.getSettleKey(), simulation.getSettledState());
         }
+        levelWidth = simulation.getLevelWidth();
+        levelHeight = simulation.getLevelHeight();
+
+        player = new Player(simulation.getPlayer());
+        addChild(player);
+        player.bindBodies();
+        collectActorBodies();
+        syncActors(1);
+
         joyStick = new JoyStick(mmToPx(10));
         addOverlayChild(joyStick);
         joyStick.setPosition(15, 15);
 
-        Image rotateRightNormal = new Image(TRONgame.atlas.findRegion("jump_down"));
-        Image rotateRightPressed = new Image(TRONgame.atlas.findRegion("jump_down_down"));
+        Image rotateRightNormal = new Image(Regions.JUMP_DOWN.get());
+        Image rotateRightPressed = new Image(Regions.JUMP_DOWN_PRESSED.get());
 
         jumpForwardBtn = new CButton(rotateRightNormal, rotateRightPressed, mmToPx(10));
         addOverlayChild(jumpForwardBtn);
 
-        Image rotateLeftNormal = new Image(TRONgame.atlas.findRegion("jump_up"));
-        Image rotateLeftPressed = new Image(TRONgame.atlas.findRegion("jump_up_up"));
+        Image rotateLeftNormal = new Image(Regions.JUMP_UP.get());
+        Image rotateLeftPressed = new Image(Regions.JUMP_UP_PRESSED.get());
 
         jumpBackBtn = new CButton(rotateLeftNormal, rotateLeftPressed, mmToPx(10));
         addOverlayChild(jumpBackBtn);
@@ -208,7 +277,7 @@ public class Level extends StageGame {
             @Override
             public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
                 if (state == PLAY) {
-                    player.jumpBack(3.0f);
+                    simulation.getPlayer().jumpBack(3.0f);
                     return true;
                 }
                 return super.touchDown(event, x, y, pointer, button);
@@ -219,7 +288,7 @@ public class Level extends StageGame {
             @Override
             public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
                 if (state == PLAY) {
-                    player.jumpForward(3.0f);
+                    simulation.getPlayer().jumpForward(3.0f);
                     return true;
                 }
                 return super.touchDown(event, x, y, pointer, button);
@@ -227,8 +296,8 @@ public class Level extends StageGame {
         });
 
         // Создаем кнопку паузы уровня
-        Image pauseNormal = new Image(TRONgame.atlas.findRegion("pause"));
-        Image pausePressed = new Image(TRONgame.atlas.findRegion("pause")); // Используем ту же текстуру для нажатого состояния
+        Image pauseNormal = new Image(Regions.PAUSE.get());
+        Image pausePressed = new Image(Regions.PAUSE.get()); // Используем ту же текстуру для нажатого состояния
         
         pauseBtn = new CButton(pauseNormal, pausePressed, mmToPx(8)); // Размер 8мм
         addOverlayChild(pauseBtn);
@@ -249,8 +318,8 @@ public class Level extends StageGame {
         });
 
         // Создаем кнопку рестарта уровня
-        Image restartNormal = new Image(TRONgame.atlas.findRegion("restart_btn"));
-        Image restartPressed = new Image(TRONgame.atlas.findRegion("restart_btn_dwn")); // Используем ту же текстуру для нажатого состояния
+        Image restartNormal = new Image(Regions.RESTART.get());
+        Image restartPressed = new Image(Regions.RESTART_PRESSED.get()); // Используем ту же текстуру для нажатого состояния
         
         restartBtn = new CButton(restartNormal, restartPressed, mmToPx(8)); // Размер 8мм
         addOverlayChild(restartBtn);
@@ -270,6 +339,8 @@ public class Level extends StageGame {
             }
         });
 
+        initProfiler();
+
         levelFailedScreen = new LevelFailedScreen(getWidth(), getHeight());
         levelFailedScreen.addListener(new MessageListener() {
             @Override
@@ -316,9 +387,7 @@ public class Level extends StageGame {
         });
 
 
-        setBackGround("level_bg");
-
-        world.getBodies(bodies);
+        setBackGround(Regions.LEVEL_BG);
 
         updateCamera();
 
@@ -328,6 +397,7 @@ public class Level extends StageGame {
         // Обновляем позицию таймера уровня
         updateLevelTimerPosition();
 
+        buildTime = System.nanoTime() - buildStart;
     }
 
     /**
@@ -437,6 +507,52 @@ public class Level extends StageGame {
         call(ON_RESTART);
     }
 
+    /**
+     * Быстрый перезапуск в том же экране: машина возвращается в положение после
+     * оседания, таймеры и кнопки сбрасываются. Карта, текстуры и шрифты остаются загруженными.
+     * @param music музыка для новой попытки
+     */
+    public void reset(String music) {
+        if (!hasBeenBuilt) return;
+        long start = System.nanoTime();
+        int fontsGenerated = TRONgame.fonts.getGeneratedCount();
+
+        if (levelFailedScreen.hasParent()) removeOverlayChild(levelFailedScreen);
+        if (levelCompletedScreen.hasParent()) removeOverlayChild(levelCompletedScreen);
+        if (pausedScreen.hasParent()) removeOverlayChild(pausedScreen);
+
+        simulation.reset();
+        syncActors(1);
+
+        state = PLAY;
+        timerLabel.setVisible(false);
+        showButtons();
+        startLevelTimer();
+        updateCamera();
+
+        // Машина вернулась на старт: картинки вокруг него могли быть уже выгружены
+        if (loader.getResidency() != null) {
+            updateResidency();
+            loader.getResidency().finishLoading();
+        }
+
+        if (music.equals(musicName) && musicHasLoaded) {
+            playMusic();
+        } else {
+            if (musicName != null && musicHasLoaded) {
+                TRONgame.media.removeMusic(musicName);
+            }
+            musicHasLoaded = false;
+            setMusic(music);
+        }
+
+        Gdx.app.log("Level", "⏱ " + directory + " reset: " + (System.nanoTime() - start) / 1000000 + " ms");
+        if (TRONgame.fonts.getGeneratedCount() != fontsGenerated) {
+            Gdx.app.error("Level", "⚠️ " + directory + " reset generated fonts: "
+                    + (TRONgame.fonts.getGeneratedCount() - fontsGenerated));
+        }
+    }
+
     public void setMusic(String name) {
         musicName = name;
         TRONgame.media.addMusic(name);
@@ -452,208 +568,37 @@ public class Level extends StageGame {
             TRONgame.media.stopMusic(musicName);
             TRONgame.media.removeMusic(musicName);
         }
-        if (world != null) world.dispose();
-        map.dispose();
+        if (simulation != null) simulation.dispose();
+        if (glProfiler != null) glProfiler.disable();
+        // Картинки уровня принадлежат AssetManager
+        loader.dispose();
+        TRONgame.fonts.release(FontCache.GROBOLD, TIMER_FONT_SIZE);
+        TRONgame.fonts.release(FontCache.GROBOLD, LEVEL_TIMER_FONT_SIZE);
 
         super.dispose();
     }
 
-    private ContactListener contactListener = new ContactListener() {
+    private LevelSimulation.Listener simulationListener = new LevelSimulation.Listener() {
         @Override
-        public void beginContact(Contact contact) {
-            Body bodyA = contact.getFixtureA().getBody();
-            Body bodyB = contact.getFixtureB().getBody();
-
-            // Проверяем финиш для обоих тел
-            if (isFinishBody(bodyA) || isFinishBody(bodyB)) {
-                Body playerBody = (bodyA == player.car || bodyA == player.frontWheel || bodyA == player.rearWheel) ? bodyA : bodyB;
-                if (playerBody != null) {
-                    Gdx.app.log("Level", "🎯 FINISH CONTACT DETECTED! Player body: " + getPlayerBodyName(playerBody));
-                    levelCompleted();
-                    return;
-                }
-            }
-
-            if (bodyA == player.car) {
-                playerTouch(bodyB);
-                return;
-            }
-
-            if (bodyB == player.car) {
-                playerTouch(bodyA);
-                return;
-            }
-
-            if (bodyA == player.car) {
-                UserData data = (UserData) bodyB.getUserData();
-                if (data != null) {
-                    if (data.name.equals("land")) {
-                        player.touchGround();
-                        return;
-                    }
-                }
-            }
-            if (bodyB == player.car) {
-                UserData data = (UserData) bodyA.getUserData();
-                if (data != null) {
-                    if (data.name.equals("land")) {
-                        player.touchGround();
-                        return;
-                    }
-                }
-            }
-            if (bodyA == player.frontWheel) {
-                UserData data = (UserData) bodyB.getUserData();
-                if (data != null) {
-                    if (data.name.equals("land")) {
-                        player.touchGround();
-                        return;
-                    }
-                }
-            }
-            if (bodyB == player.frontWheel) {
-                UserData data = (UserData) bodyA.getUserData();
-                if (data != null) {
-                    if (data.name.equals("land")) {
-                        player.touchGround();
-                        return;
-                    }
-                }
-            }
-            if (bodyA == player.rearWheel) {
-                UserData data = (UserData) bodyB.getUserData();
-                if (data != null) {
-                    if (data.name.equals("land")) {
-                        player.touchGround();
-                        return;
-                    }
-                }
-            }
-            if (bodyB == player.rearWheel) {
-                UserData data = (UserData) bodyA.getUserData();
-                if (data != null) {
-                    if (data.name.equals("land")) {
-                        player.touchGround();
-                        return;
-                    }
-                }
-            }
-        }
-
-        @Override
-        public void endContact(Contact contact) {
-
-        }
-
-        @Override
-        public void preSolve(Contact contact, Manifold oldManifold) {
-
+        public void onCompleted() {
+            levelCompleted();
         }
 
         @Override
-        public void postSolve(Contact contact, ContactImpulse impulse) {
-
-        }
-    };
-
-    // Вспомогательные методы для проверки финиша
-    private boolean isFinishBody(Body body) {
-        if (body == finish) return true;
-        UserData data = (UserData) body.getUserData();
-        return data != null && "finish".equals(data.name);
-    }
-
-    private String getPlayerBodyName(Body body) {
-        if (body == player.car) return "car";
-        if (body == player.frontWheel) return "frontWheel";
-        if (body == player.rearWheel) return "rearWheel";
-        return "unknown";
-    }
-
-    private void loadMap(String tmxFile) {
-
-        TmxMapLoader.Parameters params = new TmxMapLoader.Parameters();
-        params.generateMipMaps = true;
-        params.textureMinFilter = TextureFilter.MipMapLinearNearest;
-        params.textureMagFilter = TextureFilter.Linear;
-
-        map = new TmxMapLoader().load(tmxFile, params);
-
-        MapProperties prop = map.getProperties();
-        mapWidth = prop.get("width", Integer.class);
-        mapHeight = prop.get("height", Integer.class);
-        tilePixelWidth = prop.get("tilewidth", Integer.class);
-        tilePixelHeight = prop.get("tileheight", Integer.class);
-        levelWidth = mapWidth * tilePixelWidth;
-        levelHeight = mapHeight * tilePixelHeight;
-
-        for (MapLayer layer : map.getLayers()) {
-            String name = layer.getName();
-
-            if (name.equals("land")) {
-                createLands(layer.getObjects());
-            } else if (name.equals("items")) {
-                createItems(layer.getObjects());
-            } else {
-                TileLayer tLayer = new TileLayer(camera, map, name, stage.getBatch());
-                addChild(tLayer);
-            }
-
-        }
-
-
-    }
-
-    private void createItems(MapObjects objects) {
-        Rectangle rect;
-
-        for (MapObject object : objects) {
-            rect = ((RectangleMapObject) object).getRectangle();
-
-            if (object.getName().equals("player")) {
-                player = new Player(this);
-                player.setPosition(rect.x, rect.y);
-                addChild(player);
-                addBody(player);
-
-                stage.addActor(player);
-            } else if (object.getName().equals("finish")) {
-                finish = addFinish(rect);
+        public void onFailed(int reason) {
+            if (reason == LevelSimulation.FAIL_UPSIDE_DOWN) {
+                TRONgame.playSoundSafe("crash.ogg");
             }
+            levelFailed();
         }
-    }
-
-    private Body addFinish(Rectangle rectangle) {
-        rectangle.x /= WORLD_SCALE;
-        rectangle.y /= WORLD_SCALE;
-        rectangle.width /= WORLD_SCALE;
-        rectangle.height /= WORLD_SCALE;
-
-        BodyDef def = new BodyDef();
-        def.type = BodyType.StaticBody;
-        def.linearDamping = 0;
-
-        FixtureDef fdef = new FixtureDef();
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(rectangle.width / 2, rectangle.height / 2);
-
-        fdef.shape = shape;
-        fdef.restitution = LAND_RESTITUTION;
-        fdef.density = 1;
-        fdef.isSensor = true;
-
-        Body body = world.createBody(def);
-        body.createFixture(fdef);
-        body.setTransform(rectangle.x + rectangle.width / 2, rectangle.y + rectangle.height / 2, 0);
-        
-        // Добавляем UserData для финиша
-        UserData finishData = new UserData();
-        finishData.name = "finish";
-        body.setUserData(finishData);
-        
-        shape.dispose();
+    };
 
-        return body;
+    /**
+     * Слои land и items превращает в физику LevelSimulation, остальные - картинки
+     */
+    private void addBackground() {
+        background = new LevelBackground(camera, map, "land", "items");
+        addChild(background);
     }
 
     private void playMusic() {
@@ -696,145 +641,6 @@ public class Level extends StageGame {
     }
 
 
-    private void addBody(IBody item) {
-        Body body = item.createBody(world);
-        UserData data = new UserData();
-        data.actor = (Actor) item;
-        body.setUserData(data);
-    }
-
-    private void createLands(MapObjects objects) {
-        Polygon polygon;
-        Rectangle rectangle;
-
-        Array<Polygon> childs;
-
-        for (MapObject object : objects) {
-            if (object instanceof PolygonMapObject) {
-                polygon = ((PolygonMapObject) object).getPolygon();
-                scaleToWorld(polygon);
-                childs = getTriangles(polygon);
-                addPolygonLand(childs);
-            } else if (object instanceof RectangleMapObject) {
-                rectangle = ((RectangleMapObject) object).getRectangle();
-                addRectangleLand(rectangle);
-            }
-        }
-    }
-
-    private void addRectangleLand(Rectangle rectangle) {
-        rectangle.x /= WORLD_SCALE;
-        rectangle.y /= WORLD_SCALE;
-        rectangle.width /= WORLD_SCALE;
-        rectangle.height /= WORLD_SCALE;
-
-        BodyDef def = new BodyDef();
-        def.type = BodyType.StaticBody;
-        def.linearDamping = 0;
-
-        FixtureDef fdef = new FixtureDef();
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(rectangle.width / 2, rectangle.height / 2);
-
-        fdef.shape = shape;
-        fdef.restitution = LAND_RESTITUTION;
-        fdef.density = 1;
-
-        Body body = world.createBody(def);
-        body.createFixture(fdef);
-        body.setTransform(rectangle.x + rectangle.width / 2, rectangle.y + rectangle.height / 2, 0);
-        body.setUserData(new UserData(null, "land"));
-        shape.dispose();
-    }
-
-    private void addPolygonLand(Array<Polygon> triangles) {
-        BodyDef def = new BodyDef();
-        def.type = BodyType.StaticBody;
-        def.linearDamping = 0;
-
-        for (Polygon poly : triangles) {
-            FixtureDef fDef = new FixtureDef();
-            PolygonShape shape = new PolygonShape();
-            shape.set(poly.getTransformedVertices());
-
-            fDef.shape = shape;
-            fDef.restitution = LAND_RESTITUTION;
-            fDef.friction = 1;
-            fDef.density = 1;
-
-            Body body = world.createBody(def);
-            body.createFixture(fDef);
-            body.setUserData(new UserData(null, "land"));
-            shape.dispose();
-        }
-    }
-
-    public static Array<Polygon> getTriangles(Polygon polygon) {
-        Array<Polygon> trianglesPoly = new Array<Polygon>();
-
-        EarClippingTriangulator ear = new EarClippingTriangulator();
-        float vertices[] = polygon.getTransformedVertices();
-        ShortArray triangleIds = ear.computeTriangles(vertices);
-        Vector2 list[] = fromArray(vertices);
-
-        Polygon triangle;
-
-        int num = triangleIds.size / 3;
-        Vector2 triPoints[];
-        int i, j;
-
-        for (i = 0; i < num; i++) {
-            triPoints = new Vector2[3];
-            for (j = 0; j < 3; j++) {
-                triPoints[j] = list[triangleIds.get(i * 3 + j)];
-            }
-            triangle = new Polygon(toArray(triPoints));
-
-            if (Math.abs(triangle.area()) > 0.001f) {
-                trianglesPoly.add(triangle);
-            }
-        }
-        return trianglesPoly;
-
-    }
-
-    public static Vector2[] fromArray(float vertices[]) {
-        int num = vertices.length / 2;
-        int i;
-        Vector2 result[] = new Vector2[num];
-
-        for (i = 0; i < num; i++) {
-            result[i] = new Vector2(vertices[2 * i], vertices[2 * i + 1]);
-        }
-        return result;
-    }
-
-    public static float[] toArray(Vector2[] points) {
-        float vertices[] = new float[points.length * 2];
-        int i;
-
-        for (i = 0; i < points.length; i++) {
-            vertices[i * 2] = points[i].x;
-            vertices[i * 2 + 1] = points[i].y;
-
-        }
-        return vertices;
-    }
-
-    public static void scaleToWorld(Polygon polygon) {
-        float[] vertices = polygon.getTransformedVertices();
-        scaleToWorld(vertices);
-    }
-
-    public static void scaleToWorld(float[] vertices) {
-        int i;
-
-        for (i = 0; i < vertices.length; i++) {
-            vertices[i] /= WORLD_SCALE;
-        }
-    }
-
-
     private void resumeLevel2() {
         removeOverlayChild(pausedScreen);
     }
@@ -875,104 +681,28 @@ public class Level extends StageGame {
         actor.setY(y);
     }
 
-    protected void playerTouch(Body body) {
-        UserData data = (UserData) body.getUserData();
-        if (data != null) {
-            if (data.name.equals("land") && !player.isHasDestroyed()) {
-                // Проверяем, что машина перевернута
-                // Нормализуем угол в диапазон 0-360°
-                float normalizedRotation = player.getRotation() % 360;
-                if (normalizedRotation < 0) normalizedRotation += 360;
-
-                // Проверяем, что машина действительно перевернута (угол 120-240° - более щадящие)
-                boolean isUpsideDown = (normalizedRotation > 120 && normalizedRotation < 240);
-
-                if (isUpsideDown) {
-                    // Машина перевернута - запускаем таймер
-                    if (!isTimerRunning) {
-                        startUpsideDownTimer();
-                    }
-                    player.touchGround();
-                } else {
-                    // Машина выровнялась - останавливаем таймер
-                    if (isTimerRunning) {
-                        stopUpsideDownTimer();
-                    }
-                    player.touchGround();
-                }
-            } else if (data.name.equals("finish")) {
-                // Финиш достигнут!
-                Gdx.app.log("Level", "🎯 FINISH REACHED! Player touched finish line");
-                levelCompleted();
-            }
-        } else {
-            // Fallback проверка для финиша (если UserData не установлен)
-            if (body == finish) {
-                Gdx.app.log("Level", "🎯 FINISH REACHED! (fallback check)");
-                levelCompleted();
-            }
-        }
-    }
-
     // Инициализация стиля текста таймера
     private void initTimerStyle() {
         timerStyle = new com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle();
-        // Используем GROBOLD.ttf из папки fonts
-        try {
-            com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator generator =
-                    new com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator(
-                            com.badlogic.gdx.Gdx.files.internal("fonts/GROBOLD.ttf")
-                    );
-            com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter parameter =
-                    new com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter();
-            parameter.size = 30;
-            timerStyle.font = generator.generateFont(parameter);
-            generator.dispose();
-        } catch (Exception e) {
-            timerStyle.font = new com.badlogic.gdx.graphics.g2d.BitmapFont();
-        }
+        // Шрифты общие для всех уровней, см. FontCache
+        timerStyle.font = TRONgame.fonts.acquire(FontCache.GROBOLD, TIMER_FONT_SIZE);
         timerStyle.fontColor = com.badlogic.gdx.graphics.Color.GOLD;
 
-        timerLabel = new com.badlogic.gdx.scenes.scene2d.ui.Label("", timerStyle);
+        timerLabel = new HudLabel("", timerStyle);
         timerLabel.setVisible(false);
         addOverlayChild(timerLabel);
-        timerLabel.setPosition((getWidth() - timerLabel.getWidth()) / 2, getHeight() - 50); // Центр верхней части экрана
+        timerLabel.setAnchor(getWidth() / 2, getHeight() - 50, Align.bottom); // Центр верхней части экрана
 
         // Инициализация таймера уровня
         levelTimerStyle = new com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle();
-        try {
-            com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator generator =
-                    new com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator(
-                            com.badlogic.gdx.Gdx.files.internal("fonts/GROBOLD.ttf")
-                    );
-            com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter parameter =
-                    new com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter();
-            parameter.size = 24;
-            levelTimerStyle.font = generator.generateFont(parameter);
-            generator.dispose();
-        } catch (Exception e) {
-            levelTimerStyle.font = new com.badlogic.gdx.graphics.g2d.BitmapFont();
-        }
+        levelTimerStyle.font = TRONgame.fonts.acquire(FontCache.GROBOLD, LEVEL_TIMER_FONT_SIZE);
         levelTimerStyle.fontColor = com.badlogic.gdx.graphics.Color.WHITE;
 
-        levelTimerLabel = new com.badlogic.gdx.scenes.scene2d.ui.Label("00:00", levelTimerStyle);
+        levelTimerLabel = new HudLabel("00:00", levelTimerStyle);
         levelTimerLabel.setVisible(true);
         addOverlayChild(levelTimerLabel);
         // Позиционируем в правом верхнем углу
-        levelTimerLabel.setPosition(getWidth() - levelTimerLabel.getWidth() - 20, getHeight() - 40);
-    }
-
-    // Методы для управления таймером переворота
-    private void startUpsideDownTimer() {
-        isTimerRunning = true;
-        upsideDownTimer = 0f;
-        timerLabel.setVisible(true);
-    }
-
-    private void stopUpsideDownTimer() {
-        isTimerRunning = false;
-        upsideDownTimer = 0f;
-        timerLabel.setVisible(false);
+        levelTimerLabel.setAnchor(getWidth() - 20, getHeight() - 40, Align.bottomRight);
     }
 
     // Методы для управления таймером уровня
@@ -994,9 +724,8 @@ public class Level extends StageGame {
     private float updateLevelTimer(float delta) {
         if (levelTimerRunning && levelTimerLabel != null) {
             levelTimer += delta;
-            int minutes = (int) (levelTimer / 60);
-            int seconds = (int) (levelTimer % 60);
-            levelTimerLabel.setText(String.format("%02d:%02d", minutes, seconds));
+            // Надпись меняется раз в секунду, остальные кадры ничего не стоят
+            levelTimerLabel.setTime(levelTimer);
         }
         return levelTimer;
     }
@@ -1005,39 +734,15 @@ public class Level extends StageGame {
         return levelTimer;
     }
 
-    private void updateUpsideDownTimer(float delta) {
-        // Не обновляем таймер если уровень завершен или проигран
-        if (state == LEVEL_COMPLETED || state == LEVEL_FAILED) {
-            if (isTimerRunning) {
-                stopUpsideDownTimer();
-            }
+    private void updateUpsideDownTimer() {
+        // Сам таймер считает LevelSimulation, здесь только надпись
+        if (!simulation.isUpsideDownTimerRunning()) {
+            timerLabel.setVisible(false);
             return;
         }
 
-        if (isTimerRunning) {
-            // Дополнительная проверка - если машина уже не перевернута, останавливаем таймер
-            float currentRotation = player.getRotation() % 360;
-            if (currentRotation < 0) currentRotation += 360;
-            boolean currentlyUpsideDown = (currentRotation > 120 && currentRotation < 240);
-
-            if (!currentlyUpsideDown) {
-                stopUpsideDownTimer();
-                return;
-            }
-
-            upsideDownTimer += delta;
-            float remainingTime = UPSIDE_DOWN_TIMEOUT - upsideDownTimer;
-
-            // Обновляем текст на экране
-            timerLabel.setText("UPSIDE DOWN! " + String.format("%.1f", remainingTime) + "s");
-
-            if (upsideDownTimer >= UPSIDE_DOWN_TIMEOUT) {
-                // Время истекло - проигрыш
-                player.destroy();
-                TRONgame.playSoundSafe("crash.ogg");
-                levelFailed();
-            }
-        }
+        timerLabel.setVisible(true);
+        timerLabel.setTenths("UPSIDE DOWN! ", simulation.getUpsideDownTimeLeft(), "s");
     }
 
     private void levelCompleted() {
@@ -1045,9 +750,7 @@ public class Level extends StageGame {
         state = LEVEL_COMPLETED;
 
         // Останавливаем все таймеры и процессы
-        if (isTimerRunning) {
-            stopUpsideDownTimer();
-        }
+        timerLabel.setVisible(false);
         stopLevelTimer();
         stopMusic();
         hideButtons();
@@ -1058,6 +761,8 @@ public class Level extends StageGame {
         levelCompletedScreen.start();
         saveLevelCompletion();
         TRONgame.playSoundSafe("level_win_new.ogg");
+
+        call(ON_FINISH_REACHED);
     }
 
     private void levelFailed() {
@@ -1109,27 +814,45 @@ public class Level extends StageGame {
         super.resume();
     }
 
-    private void updateWorld(float delta) {
-        if (player.getRight() < levelWidth - 100) {
-            world.step(delta, 10, 10);
+    /**
+     * Собирает тела, к которым привязаны актеры (корпус и колеса), в плотные массивы
+     */
+    private void collectActorBodies() {
+        Array<Body> bodies = simulation.getDynamicBodies();
+        int count = 0;
+        for (Body body : bodies) {
+            if (((UserData) body.getUserData()).actor != null) count++;
         }
 
-        int i;
-        Body body;
-        UserData data;
-        for (i = 0; i < bodies.size; i++) {
-            body = bodies.get(i);
-
-            data = (UserData) body.getUserData();
-
-            if (data != null) {
-                Actor actor = data.actor;
+        actorBodies = new Body[count];
+        actorData = new UserData[count];
+        count = 0;
+        for (Body body : bodies) {
+            UserData data = (UserData) body.getUserData();
+            if (data.actor == null) continue;
+            actorBodies[count] = body;
+            actorData[count] = data;
+            count++;
+        }
+    }
 
-                if (actor != null) {
-                    actor.setPosition(body.getPosition().x * WORLD_SCALE, body.getPosition().y * WORLD_SCALE);
-                    actor.setRotation(body.getAngle() * 180 / 3.14f);
-                }
-            }
+    /**
+     * Переносит положение тел на актёров, интерполируя между предыдущим и текущим шагом
+     * @param alpha доля шага, прошедшая после последнего world.step (0..1)
+     */
+    private void syncActors(float alpha) {
+        // Только тела с актерами: сколько бы тел ни было у земли, здесь их три
+        for (int i = 0; i < actorBodies.length; i++) {
+            Body body = actorBodies[i];
+            UserData data = actorData[i];
+
+            Vector2 pos = body.getPosition();
+            float x = data.prevX + (pos.x - data.prevX) * alpha;
+            float y = data.prevY + (pos.y - data.prevY) * alpha;
+            float angle = data.prevAngle + (body.getAngle() - data.prevAngle) * alpha;
+
+            data.actor.setPosition(x * WORLD_SCALE, y * WORLD_SCALE);
+            data.actor.setRotation(angle * MathUtils.radiansToDegrees);
         }
     }
 
@@ -1138,7 +861,7 @@ public class Level extends StageGame {
         super.update(delta);
 
         if (musicName != null && !musicHasLoaded) {
-            if (TRONgame.media.update()) {
+            if (TRONgame.media.isMusicLoaded(musicName)) {
                 musicHasLoaded = true;
                 // Воспроизводим музыку только если она не выключена глобально
                 if (!TRONgame.isSoundMuted) {
@@ -1147,16 +870,29 @@ public class Level extends StageGame {
             }
         }
         if (!hasBeenBuilt) {
+            // Физика строится только когда геометрия и картинки уровня уже загружены
+            if (loader.update()) {
+                build();
+                hideLoadingIndicator();
+            } else {
+                updateLoadingIndicator();
+            }
             return;
         }
 
+        updateResidency();
+
         // Обновляем физику даже после проигрыша для анимации разбрасывания колес
         if (state != PAUSED) {
-            float delta2 = 0.033f;
-            if (delta < delta2)
-                delta2 = delta;
+            moveFrontKey = joyStick.isRight();
+            moveBackKey = joyStick.isLeft();
+            simulation.setControls(moveFrontKey, moveBackKey);
 
-            updateWorld(delta2);
+            simulation.update(delta, state == PLAY);
+            syncActors(simulation.getAlpha());
+        }
+        if (profiler != null) {
+            profiler.add(FrameProfiler.STEP, simulation.takeStepNanos());
         }
 
         // Не обновляем игровую логику если уровень завершен или проигран
@@ -1164,54 +900,200 @@ public class Level extends StageGame {
             return;
         }
 
-        boolean lFront = joyStick.isRight();
-        boolean lBack = joyStick.isLeft();
-
         if (state == PLAY) {
 
-            player.onKey(lFront, lBack);
-
-            // Обновляем таймер переворота
-            updateUpsideDownTimer(delta);
+            // Обновляем надпись таймера переворота
+            updateUpsideDownTimer();
 
             // Обновляем таймер уровня
             updateLevelTimer(delta);
 
             updateCamera();
 
-            if (player.getY() < -100) {
-                levelFailed();
-            }
-
         }
     }
 
     @Override
     public void render(float delta) {
-        super.render(delta);
+        if (profiler != null) {
+            renderProfiled(delta);
+        } else {
+            super.render(delta);
+        }
+        countRenderCalls();
+        updateProfilerLabel(delta);
+
+        if (hasBeenBuilt && !firstFrameLogged) {
+            firstFrameLogged = true;
+            Gdx.app.log("Level", "⏱ " + directory + " first frame: " + (System.nanoTime() - createdAt) / 1000000
+                    + " ms (build " + buildTime / 1000000 + " ms, " + loader.getLevelFile().extension() + ")");
+        }
 
         if (Setting.DEBUG_WORLD) {
             if (hasBeenBuilt) {
-                debugRenderer.render(world, camera.combined.cpy().scl(WORLD_SCALE));
+                debugRenderer.render(simulation.getWorld(), camera.combined.cpy().scl(WORLD_SCALE));
             }
         }
     }
 
-    public static Vector2 calculateCentroid(float vertices[]) {
-        Vector2[] points = fromArray(vertices);
-        float x = 0;
-        float y = 0;
-        int pointCount = points.length;
-        for (int i = 0; i < pointCount - 1; i++) {
-            final Vector2 point = points[i];
-            x += point.x;
-            y += point.y;
+    /**
+     * Подгружает картинки фона вокруг камеры и выгружает оставшиеся позади
+     */
+    private void updateResidency() {
+        TextureResidency residency = loader.getResidency();
+        if (residency == null) return;
+
+        float halfWidth = camera.viewportWidth * camera.zoom / 2;
+        residency.update(camera.position.x - halfWidth, camera.position.x + halfWidth);
+    }
+
+    /**
+     * То же, что StageGame.render, с замерами частей кадра для FrameProfiler.
+     * StageGame лежит в game_lib.jar, поэтому замеры не вставить внутрь его render.
+     */
+    private void renderProfiled(float delta) {
+        long frameStart = System.nanoTime();
+
+        Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        update(delta);
+        long updated = System.nanoTime();
+
+        stage.act(delta);
+        long stageActed = System.nanoTime();
+
+        overlay.act(delta);
+        long overlayActed = System.nanoTime();
+
+        runDelay(delta);
+
+        float camX = camera.position.x;
+        float camY = camera.position.y;
+        float camZoom = camera.zoom;
+
+        // super.background - сцена фона StageGame, а не LevelBackground
+        camera.position.x = getWidth() / 2;
+        camera.position.y = getHeight() / 2;
+        camera.zoom = 1;
+        long drawStart = System.nanoTime();
+        super.background.draw();
+
+        camera.position.x = camX;
+        camera.position.y = camY;
+        camera.zoom = camZoom;
+        stage.draw();
+
+        camera.position.x = getWidth() / 2;
+        camera.position.y = getHeight() / 2;
+        camera.zoom = 1;
+        overlay.draw();
+        long drawn = System.nanoTime();
+
+        camera.position.x = camX;
+        camera.position.y = camY;
+        camera.zoom = camZoom;
+        camera.update();
+
+        profiler.add(FrameProfiler.UPDATE, updated - frameStart);
+        profiler.add(FrameProfiler.STAGE_ACT, stageActed - updated);
+        profiler.add(FrameProfiler.OVERLAY_ACT, overlayActed - stageActed);
+        profiler.add(FrameProfiler.DRAW, drawn - drawStart);
+        if (background != null) {
+            profiler.add(FrameProfiler.BACKGROUND, background.getDrawNanos());
         }
+        profiler.add(FrameProfiler.FRAME, System.nanoTime() - frameStart);
+        profiler.endFrame();
+    }
+
+    private void initProfiler() {
+        if (!Setting.DEBUG_GAME) return;
+
+        profiler = new FrameProfiler();
 
-        x = x / pointCount;
-        y = y / pointCount - 33;
+        // Шрифт таймера уровня, уменьшенный - чтобы не брать из FontCache еще один размер
+        profilerLabel = new Label("", levelTimerStyle);
+        profilerLabel.setFontScale(0.6f);
+        profilerLabel.setTouchable(Touchable.disabled);
+        profilerLabel.setVisible(false);
+        addOverlayChild(profilerLabel);
 
-        return new Vector2(x, y);
+        levelTimerLabel.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                toggleProfiler();
+            }
+        });
+    }
+
+    private void toggleProfiler() {
+        if (profilerLabel == null) return;
+        profilerLabel.setVisible(!profilerLabel.isVisible());
+        profilerRefresh = 0;
+    }
+
+    /**
+     * Текст оверлея обновляется два раза в секунду, чтобы сам оверлей почти не влиял на замеры
+     */
+    private void updateProfilerLabel(float delta) {
+        if (profilerLabel == null || !profilerLabel.isVisible()) return;
+
+        profilerRefresh -= delta;
+        if (profilerRefresh > 0) return;
+        profilerRefresh = 0.5f;
+
+        profilerText.setLength(0);
+        profiler.appendReport(profilerText);
+
+        profilerText.append("bodies ").append(simulation.getWorld().getBodyCount())
+                .append(", contacts ").append(simulation.getWorld().getContactCount())
+                .append(" (touching ").append(simulation.getTouchingContacts()).append(")\n");
+        TerrainActivation activation = simulation.getTerrainActivation();
+        if (activation != null) {
+            profilerText.append("terrain active ").append(activation.getActiveCount())
+                    .append('/').append(activation.getBodyCount()).append('\n');
+        }
+        SolverQuality solver = simulation.getSolverQuality();
+        if (solver != null) {
+            profilerText.append("solver ").append(solver.getVelocityIterations())
+                    .append('/').append(solver.getPositionIterations())
+                    .append(", reduced ").append((int) (solver.getReducedShare() * 100)).append("%\n");
+        }
+        profilerText.append("draw calls ").append(drawCalls)
+                .append(", layers ").append(background.getDrawnLayers()).append('/').append(background.getLayerCount());
+        TextureResidency residency = loader.getResidency();
+        if (residency != null) {
+            profilerText.append("\nresident ").append(residency.getResidentCount())
+                    .append(", ").append(residency.getResidentBytes() / 1024).append(" KB");
+        }
+
+        profilerLabel.setText(profilerText);
+        profilerLabel.pack();
+        profilerLabel.setPosition(20, getHeight() - 160, Align.topLeft);
+    }
+
+    private void countRenderCalls() {
+        if (!Setting.DEBUG_GAME || !hasBeenBuilt) return;
+
+        if (glProfiler == null) {
+            glProfiler = new GLProfiler(Gdx.graphics);
+            glProfiler.enable();
+            return;
+        }
+
+        drawCalls = glProfiler.getDrawCalls();
+        if (++renderStatsFrames % 300 == 0) {
+            Gdx.app.log("Level", "🎨 GL calls: " + glProfiler.getCalls() + ", draw calls: " + glProfiler.getDrawCalls()
+                    + ", texture bindings: " + glProfiler.getTextureBindings()
+                    + ", background layers: " + background.getDrawnLayers() + "/" + background.getLayerCount());
+
+            TextureResidency residency = loader.getResidency();
+            if (residency != null) {
+                Gdx.app.log("Level", "🖼 resident images: " + residency.getResidentCount() + ", "
+                        + residency.getResidentBytes() / 1024 + " KB, late frames: " + residency.getLateFrames());
+            }
+        }
+        glProfiler.reset();
     }
 
     @Override
@@ -1229,20 +1111,23 @@ public class Level extends StageGame {
                 return true;
             }
         }
+        if (Setting.DEBUG_GAME && keycode == Input.Keys.F3) {
+            toggleProfiler();
+            return true;
+        }
 
         return super.keyUp(keycode);
     }
 
     private void updateLevelTimerPosition() {
+        // Размер надписей таймеров HudLabel обновляет сам, когда меняется текст
         if (levelTimerLabel != null) {
-            levelTimerLabel.pack(); // Обновляем размер label
-            levelTimerLabel.setPosition(getWidth() - levelTimerLabel.getWidth() - 20, getHeight() - 40);
+            levelTimerLabel.setAnchor(getWidth() - 20, getHeight() - 40, Align.bottomRight);
         }
         
         // Обновляем позицию таймера переворота в центре верхней части экрана
         if (timerLabel != null) {
-            timerLabel.pack(); // Обновляем размер label
-            timerLabel.setPosition((getWidth() - timerLabel.getWidth()) / 2, getHeight() - 50);
+            timerLabel.setAnchor(getWidth() / 2, getHeight() - 50, Align.bottom);
         }
         
         // Обновляем позицию кнопки паузы в верхнем левом углу
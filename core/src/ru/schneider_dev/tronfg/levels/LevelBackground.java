@@ -0,0 +1,114 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.media.TextureFormats;
+
+/**
+ * Все слои картинок уровня одним актером. Рисует прямо в батч сцены, без своего
+ * рендерера и без end()/begin(), и только те слои, что попадают в камеру.
+ * Позиция и прозрачность - как у OrthogonalTiledMapRenderer.renderImageLayer.
+ */
+public class LevelBackground extends Actor {
+
+    private final OrthographicCamera camera;
+    private final Array<TiledMapImageLayer> layers = new Array<TiledMapImageLayer>();
+
+    private int drawnLayers;
+    private long drawNanos;
+
+    /**
+     * @param skipLayers слои карты, которые не рисуются (земля, предметы)
+     */
+    public LevelBackground(OrthographicCamera camera, TiledMap map, String... skipLayers) {
+        this.camera = camera;
+
+        for (MapLayer layer : map.getLayers()) {
+            if (!(layer instanceof TiledMapImageLayer)) continue;
+            if (isSkipped(layer.getName(), skipLayers)) continue;
+
+            layers.add((TiledMapImageLayer) layer);
+        }
+    }
+
+    private static boolean isSkipped(String name, String[] skipLayers) {
+        for (String skip : skipLayers) {
+            if (skip.equals(name)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        long start = Setting.DEBUG_GAME ? System.nanoTime() : 0;
+
+        float halfWidth = camera.viewportWidth * camera.zoom / 2;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2;
+        float left = camera.position.x - halfWidth;
+        float right = camera.position.x + halfWidth;
+        float bottom = camera.position.y - halfHeight;
+        float top = camera.position.y + halfHeight;
+
+        Color color = batch.getColor();
+        float r = color.r, g = color.g, b = color.b, a = color.a;
+
+        // Сжатые картинки с альфой в нижней половине рисуются своим шейдером
+        ShaderProgram shader = null;
+
+        drawnLayers = 0;
+        for (TiledMapImageLayer layer : layers) {
+            if (!layer.isVisible()) continue;
+
+            TextureRegion region = layer.getTextureRegion();
+            if (region == null) continue;
+            float x = layer.getX();
+            float y = layer.getY();
+
+            if (x >= right || x + region.getRegionWidth() <= left) continue;
+            if (y >= top || y + region.getRegionHeight() <= bottom) continue;
+
+            ShaderProgram layerShader = TextureFormats.isAlphaSplit(region.getTexture()) ? TextureFormats.getAlphaSplitShader() : null;
+            if (layerShader != shader) {
+                batch.setShader(layerShader);
+                shader = layerShader;
+            }
+
+            batch.setColor(r, g, b, a * layer.getOpacity() * parentAlpha);
+            batch.draw(region, x, y);
+            drawnLayers++;
+        }
+        batch.setColor(r, g, b, a);
+        if (shader != null) batch.setShader(null);
+
+        // Время до flush батча: сами вызовы GL попадают в замер отрисовки сцены
+        if (Setting.DEBUG_GAME) drawNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return сколько слоев нарисовано в последнем кадре
+     */
+    public int getDrawnLayers() {
+        return drawnLayers;
+    }
+
+    /**
+     * @return время последнего draw, нс; считается только с Setting.DEBUG_GAME
+     */
+    public long getDrawNanos() {
+        return drawNanos;
+    }
+
+    public int getLayerCount() {
+        return layers.size;
+    }
+}
@@ -0,0 +1,350 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.PolygonMapObject;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import ru.schneider_dev.tronfg.Setting;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Готовая к сборке мира геометрия уровня: фикстуры земли уже в координатах мира
+ * и уже разбиты на куски, плюс позиции игрока и финиша и ссылки на картинки фона.
+ * <p>
+ * Строится из TMX ({@link #fromMap}) или читается из level.bin, который заранее
+ * собирает задача gradlew desktop:compileLevels. Формат (big-endian):
+ * <pre>
+ * int MAGIC, int VERSION, byte flags
+ * int mapWidth, mapHeight, tileWidth, tileHeight
+ * byte terrainMode (0 - polygon, 1 - chain)
+ * float[4] player, float[4] finish           - пиксели уровня
+ * int n, n * (int len, float[len])            - выпуклые куски земли
+ * int n, n * (byte loop, int len, float[len]) - линии поверхности
+ * int n, n * float[4]                         - прямоугольники земли
+ * int n, n * ImageLayer                       - слои картинок
+ * </pre>
+ */
+public class LevelData {
+
+    public static final String BINARY_NAME = "level.bin";
+
+    private static final int MAGIC = 0x54524C56; // "TRLV"
+    private static final int VERSION = 2;
+    private static final int FLAG_CONVEX_PIECES = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Слой картинки фона. Y верхнего края, как в TMX; размер картинки известен
+     * заранее, чтобы слои можно было подгружать по мере движения камеры.
+     */
+    public static class ImageLayer {
+        public String name;
+        public String path;
+        public float x, top;
+        public int width, height;
+        public float offsetX, offsetY;
+        public float opacity = 1;
+        public boolean visible = true;
+
+        /**
+         * Слой картинки из загруженной карты; размер картинки заполняет вызывающий
+         * @param path путь к картинке слоя
+         */
+        public static ImageLayer fromMap(TiledMapImageLayer layer, String path) {
+            ImageLayer source = new ImageLayer();
+            source.name = layer.getName();
+            source.path = path;
+            // Позиция, по которой слой рисуется; offsetx из TMX в ней уже учтен
+            source.x = layer.getX();
+            source.top = layer.getY(); // у пустого региона высота 0
+            source.offsetX = layer.getOffsetX();
+            source.offsetY = layer.getOffsetY();
+            source.opacity = layer.getOpacity();
+            source.visible = layer.isVisible();
+            return source;
+        }
+    }
+
+    public int mapWidth, mapHeight, tileWidth, tileHeight;
+    public String terrainMode = LevelSimulation.TERRAIN_POLYGON;
+    public boolean convexPieces = Setting.MERGE_CONVEX_PIECES;
+
+    public Rectangle player, finish;
+
+    public final Array<float[]> polygons = new Array<float[]>();
+    public final Array<float[]> chains = new Array<float[]>();
+    public final BooleanArray chainLoops = new BooleanArray();
+    public final Array<Rectangle> rectangles = new Array<Rectangle>();
+    public final Array<ImageLayer> imageLayers = new Array<ImageLayer>();
+
+    public int getLevelWidth() {
+        return mapWidth * tileWidth;
+    }
+
+    public int getLevelHeight() {
+        return mapHeight * tileHeight;
+    }
+
+    /**
+     * Разбирает карту с режимом земли из свойства карты "terrain" и разбиением из Setting
+     */
+    public static LevelData fromMap(TiledMap map) {
+        String terrainMode = map.getProperties().get("terrain", LevelSimulation.TERRAIN_POLYGON, String.class);
+        return fromMap(map, terrainMode, Setting.MERGE_CONVEX_PIECES);
+    }
+
+    /**
+     * Разбирает слои land и items карты.
+     * Слои картинок не заполняются: у загруженной карты нет путей к файлам.
+     * @param terrainMode  TERRAIN_POLYGON или TERRAIN_CHAIN
+     * @param convexPieces склеивать ли треугольники земли в выпуклые куски
+     */
+    public static LevelData fromMap(TiledMap map, String terrainMode, boolean convexPieces) {
+        LevelData data = new LevelData();
+        data.terrainMode = terrainMode;
+        data.convexPieces = convexPieces;
+
+        MapProperties prop = map.getProperties();
+        data.mapWidth = prop.get("width", Integer.class);
+        data.mapHeight = prop.get("height", Integer.class);
+        data.tileWidth = prop.get("tilewidth", Integer.class);
+        data.tileHeight = prop.get("tileheight", Integer.class);
+
+        MapLayer land = map.getLayers().get("land");
+        if (land != null) {
+            data.readLands(land);
+        }
+
+        MapLayer items = map.getLayers().get("items");
+        if (items != null) {
+            for (MapObject object : items.getObjects()) {
+                Rectangle rect = ((RectangleMapObject) object).getRectangle();
+
+                if (object.getName().equals("player")) {
+                    data.player = new Rectangle(rect);
+                } else if (object.getName().equals("finish")) {
+                    data.finish = new Rectangle(rect);
+                }
+            }
+        }
+        return data;
+    }
+
+    private void readLands(MapLayer layer) {
+        Array<float[]> outlines = new Array<float[]>();
+
+        for (MapObject object : layer.getObjects()) {
+            if (object instanceof PolygonMapObject) {
+                Polygon polygon = new Polygon(((PolygonMapObject) object).getPolygon().getTransformedVertices());
+                LevelSimulation.scaleToWorld(polygon);
+
+                if (terrainMode.equals(LevelSimulation.TERRAIN_CHAIN)) {
+                    outlines.add(polygon.getTransformedVertices());
+                } else {
+                    Array<Polygon> pieces = convexPieces ? LevelSimulation.getConvexPieces(polygon) : LevelSimulation.getTriangles(polygon);
+                    for (Polygon piece : pieces) {
+                        polygons.add(piece.getTransformedVertices());
+                    }
+                }
+            } else if (object instanceof RectangleMapObject) {
+                Rectangle rectangle = new Rectangle(((RectangleMapObject) object).getRectangle());
+                rectangle.x /= LevelSimulation.WORLD_SCALE;
+                rectangle.y /= LevelSimulation.WORLD_SCALE;
+                rectangle.width /= LevelSimulation.WORLD_SCALE;
+                rectangle.height /= LevelSimulation.WORLD_SCALE;
+                rectangles.add(rectangle);
+            }
+        }
+
+        // В режиме ChainShape земля - это линии поверхности, а не залитые треугольники
+        for (SurfaceOutline outline : SurfaceOutline.build(outlines)) {
+            chains.add(outline.vertices);
+            chainLoops.add(outline.loop);
+        }
+    }
+
+    /**
+     * @return данные уровня или null, если файл собран другой версией или с другими настройками,
+     * обрезан или испорчен
+     */
+    public static LevelData read(FileHandle file) {
+        ByteBuffer buffer = ByteBuffer.wrap(file.readBytes());
+        try {
+            return read(buffer, file.path());
+        } catch (BufferUnderflowException e) {
+            Gdx.app.log("LevelData", "⚠️ " + file.path() + ": truncated or corrupt, falling back to TMX");
+            return null;
+        }
+    }
+
+    private static LevelData read(ByteBuffer buffer, String path) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            Gdx.app.log("LevelData", "⚠️ " + path + ": unknown format, falling back to TMX");
+            return null;
+        }
+        int flags = buffer.get();
+        if (((flags & FLAG_CONVEX_PIECES) != 0) != Setting.MERGE_CONVEX_PIECES) {
+            Gdx.app.log("LevelData", "⚠️ " + path + ": compiled with other settings, falling back to TMX");
+            return null;
+        }
+
+        LevelData data = new LevelData();
+        data.convexPieces = Setting.MERGE_CONVEX_PIECES;
+        data.mapWidth = buffer.getInt();
+        data.mapHeight = buffer.getInt();
+        data.tileWidth = buffer.getInt();
+        data.tileHeight = buffer.getInt();
+        data.terrainMode = buffer.get() == 1 ? LevelSimulation.TERRAIN_CHAIN : LevelSimulation.TERRAIN_POLYGON;
+
+        data.player = readRectangle(buffer);
+        data.finish = readRectangle(buffer);
+
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            data.polygons.add(readFloats(buffer));
+        }
+
+        count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            data.chainLoops.add(buffer.get() == 1);
+            data.chains.add(readFloats(buffer));
+        }
+
+        count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            data.rectangles.add(readRectangle(buffer));
+        }
+
+        count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            ImageLayer layer = new ImageLayer();
+            layer.name = readString(buffer);
+            layer.path = readString(buffer);
+            layer.x = buffer.getFloat();
+            layer.top = buffer.getFloat();
+            layer.width = buffer.getInt();
+            layer.height = buffer.getInt();
+            layer.offsetX = buffer.getFloat();
+            layer.offsetY = buffer.getFloat();
+            layer.opacity = buffer.getFloat();
+            layer.visible = buffer.get() == 1;
+            data.imageLayers.add(layer);
+        }
+        return data;
+    }
+
+    public void write(FileHandle file) {
+        DataOutputStream out = new DataOutputStream(file.write(false, 64 * 1024));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(convexPieces ? FLAG_CONVEX_PIECES : 0);
+            out.writeInt(mapWidth);
+            out.writeInt(mapHeight);
+            out.writeInt(tileWidth);
+            out.writeInt(tileHeight);
+            out.writeByte(terrainMode.equals(LevelSimulation.TERRAIN_CHAIN) ? 1 : 0);
+
+            writeRectangle(out, player);
+            writeRectangle(out, finish);
+
+            out.writeInt(polygons.size);
+            for (float[] vertices : polygons) {
+                writeFloats(out, vertices);
+            }
+
+            out.writeInt(chains.size);
+            for (int i = 0; i < chains.size; i++) {
+                out.writeByte(chainLoops.get(i) ? 1 : 0);
+                writeFloats(out, chains.get(i));
+            }
+
+            out.writeInt(rectangles.size);
+            for (Rectangle rectangle : rectangles) {
+                writeRectangle(out, rectangle);
+            }
+
+            out.writeInt(imageLayers.size);
+            for (ImageLayer layer : imageLayers) {
+                writeString(out, layer.name);
+                writeString(out, layer.path);
+                out.writeFloat(layer.x);
+                out.writeFloat(layer.top);
+                out.writeInt(layer.width);
+                out.writeInt(layer.height);
+                out.writeFloat(layer.offsetX);
+                out.writeFloat(layer.offsetY);
+                out.writeFloat(layer.opacity);
+                out.writeByte(layer.visible ? 1 : 0);
+            }
+            out.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing level: " + file.path(), e);
+        }
+    }
+
+    private static Rectangle readRectangle(ByteBuffer buffer) {
+        return new Rectangle(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    private static float[] readFloats(ByteBuffer buffer) {
+        float[] values = new float[readLength(buffer, buffer.getInt(), 4)];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readLength(buffer, buffer.getShort(), 1)];
+        buffer.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Длина массива из файла; испорченная (отрицательная или больше остатка файла)
+     * идет по тому же пути, что и обрезанный файл
+     */
+    private static int readLength(ByteBuffer buffer, int length, int elementSize) {
+        if (length < 0 || length > buffer.remaining() / elementSize) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    private static void writeRectangle(DataOutputStream out, Rectangle rectangle) throws IOException {
+        out.writeFloat(rectangle.x);
+        out.writeFloat(rectangle.y);
+        out.writeFloat(rectangle.width);
+        out.writeFloat(rectangle.height);
+    }
+
+    private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
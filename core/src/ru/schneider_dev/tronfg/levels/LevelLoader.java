@@ -0,0 +1,286 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.boontaran.games.StageGame;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.media.TextureFormats;
+import ru.schneider_dev.tronfg.player.CarHull;
+import ru.schneider_dev.tronfg.player.PlayerState;
+
+/**
+ * Готовит все, что нужно уровню до build(): геометрию (LevelData) и положение
+ * машины из SettleCache - в отдельном потоке, картинки фона - через AssetManager.
+ * Используется и для обычной загрузки, и для предзагрузки следующего уровня,
+ * пока показывается экран "уровень пройден".
+ */
+public class LevelLoader implements Disposable {
+
+    // Один поток на всю игру: геометрия уровней готовится по очереди
+    private static final AsyncExecutor executor = new AsyncExecutor(1, "LevelLoader");
+
+    private final AssetManager assets;
+    private final String directory;
+    private final CarHull hull;
+
+    private AsyncResult<LevelData> geometry;
+    private FileHandle levelFile;
+    private PlayerState settledState;
+    private long settleKey;
+
+    private LevelData data;
+    private final Array<String> assetPaths = new Array<String>();
+    private TextureResidency residency;
+    private TiledMap map;
+    private boolean disposed = false;
+
+    /**
+     * @param directory папка уровня в tiled/, например level1
+     * @param hull      корпус машины (нужен для ключа SettleCache)
+     */
+    public LevelLoader(AssetManager assets, String directory, CarHull hull) {
+        this.assets = assets;
+        this.directory = directory;
+        this.hull = hull;
+    }
+
+    /**
+     * Запускает подготовку геометрии в фоне. Повторный вызов ничего не делает.
+     */
+    public void start() {
+        if (geometry != null) return;
+
+        geometry = executor.submit(new AsyncTask<LevelData>() {
+            @Override
+            public LevelData call() {
+                return loadGeometry();
+            }
+        });
+    }
+
+    /**
+     * Выполняется в потоке executor: без GL и без AssetManager
+     */
+    private LevelData loadGeometry() {
+        String levelDir = "tiled/" + directory;
+        LevelData result = null;
+
+        FileHandle binFile = Gdx.files.internal(levelDir + "/" + LevelData.BINARY_NAME);
+        if (binFile.exists()) {
+            result = LevelData.read(binFile);
+        }
+
+        if (result != null) {
+            levelFile = binFile;
+            // Сжатые картинки вместо PNG, если они собраны и GPU их понимает
+            for (LevelData.ImageLayer layer : result.imageLayers) {
+                layer.path = TextureFormats.resolve(layer.path);
+            }
+        } else {
+            levelFile = Gdx.files.internal(levelDir + "/level.tmx");
+            result = LevelData.fromMap(new GeometryMapLoader().loadGeometry(levelFile.path()));
+        }
+
+        settleKey = SettleCache.key(levelFile, hull);
+        settledState = SettleCache.read(SettleCache.file(directory), settleKey);
+        return result;
+    }
+
+    /**
+     * Продвигает загрузку. Вызывается из потока рендера каждый кадр.
+     * Сам AssetManager здесь не обновляется: это делает TRONgame.render один раз за кадр,
+     * с бюджетом Setting.ASSET_FRAME_BUDGET_MS на все загрузки сразу.
+     * @return true, когда все готово
+     */
+    public boolean update() {
+        start();
+        if (data == null) {
+            if (!geometry.isDone()) return false;
+            onGeometryLoaded(geometry.get());
+        }
+        return isReady();
+    }
+
+    /**
+     * Догружает все синхронно
+     */
+    public void finishLoading() {
+        start();
+        if (data == null) {
+            onGeometryLoaded(geometry.get());
+        }
+        for (String path : assetPaths) {
+            assets.finishLoadingAsset(path);
+        }
+        if (residency != null) {
+            residency.finishLoading();
+        }
+    }
+
+    public boolean isReady() {
+        if (data == null) return false;
+
+        for (String path : assetPaths) {
+            if (!assets.isLoaded(path)) return false;
+        }
+        return residency == null || residency.isLoaded();
+    }
+
+    /**
+     * @return приблизительная доля загруженного, 0..1
+     */
+    public float getProgress() {
+        if (data == null) return 0.1f;
+        return 0.1f + 0.9f * assets.getProgress();
+    }
+
+    private void onGeometryLoaded(LevelData data) {
+        this.data = data;
+
+        if (isBinary() && Setting.STREAM_LEVEL_IMAGES) {
+            // Сразу грузятся только картинки вокруг старта, остальные - по ходу уровня
+            residency = new TextureResidency(assets, data.imageLayers);
+            float x = data.player.x;
+            residency.request(x - StageGame.appWidth / 2f, x + StageGame.appWidth / 2f);
+        } else if (isBinary()) {
+            TextureLoader.TextureParameter params = new TextureLoader.TextureParameter();
+            params.genMipMaps = true;
+            params.minFilter = TextureFilter.MipMapLinearNearest;
+            params.magFilter = TextureFilter.Linear;
+
+            for (LevelData.ImageLayer layer : data.imageLayers) {
+                assets.load(layer.path, Texture.class, params);
+                assetPaths.add(layer.path);
+            }
+        } else {
+            TmxMapLoader.Parameters params = new TmxMapLoader.Parameters();
+            params.generateMipMaps = true;
+            params.textureMinFilter = TextureFilter.MipMapLinearNearest;
+            params.textureMagFilter = TextureFilter.Linear;
+
+            assets.load(levelFile.path(), TiledMap.class, params);
+            assetPaths.add(levelFile.path());
+        }
+    }
+
+    private boolean isBinary() {
+        return levelFile.name().equals(LevelData.BINARY_NAME);
+    }
+
+    /**
+     * Карта со слоями картинок. Текстурами владеет AssetManager, освобождаются в dispose().
+     */
+    public TiledMap getMap() {
+        if (map != null) return map;
+
+        if (isBinary()) {
+            map = createImageMap();
+        } else {
+            map = assets.get(levelFile.path(), TiledMap.class);
+        }
+        return map;
+    }
+
+    /**
+     * Собирает карту из слоев картинок level.bin, как это сделал бы TmxMapLoader
+     */
+    private TiledMap createImageMap() {
+        TiledMap imageMap = new TiledMap();
+        MapProperties prop = imageMap.getProperties();
+        prop.put("width", data.mapWidth);
+        prop.put("height", data.mapHeight);
+        prop.put("tilewidth", data.tileWidth);
+        prop.put("tileheight", data.tileHeight);
+
+        for (int i = 0; i < data.imageLayers.size; i++) {
+            LevelData.ImageLayer source = data.imageLayers.get(i);
+            TextureRegion region = null;
+            if (residency == null) {
+                region = TextureFormats.createRegion(assets.get(source.path, Texture.class));
+            }
+
+            TiledMapImageLayer layer = new TiledMapImageLayer(region, source.x, source.top - source.height);
+            layer.setName(source.name);
+            layer.setOffsetX(source.offsetX);
+            layer.setOffsetY(source.offsetY);
+            layer.setOpacity(source.opacity);
+            layer.setVisible(source.visible);
+            imageMap.getLayers().add(layer);
+
+            if (residency != null) {
+                residency.setMapLayer(i, layer);
+            }
+        }
+        return imageMap;
+    }
+
+    /**
+     * @return подгрузка картинок по камере или null, если все картинки загружены сразу
+     */
+    public TextureResidency getResidency() {
+        return residency;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public CarHull getHull() {
+        return hull;
+    }
+
+    public LevelData getData() {
+        return data;
+    }
+
+    /**
+     * @return level.bin или level.tmx, из которого загружен уровень
+     */
+    public FileHandle getLevelFile() {
+        return levelFile;
+    }
+
+    /**
+     * @return положение машины из SettleCache или null, если кэш не подошел
+     */
+    public PlayerState getSettledState() {
+        return settledState;
+    }
+
+    public long getSettleKey() {
+        return settleKey;
+    }
+
+    /**
+     * Выгружает картинки уровня из AssetManager (в том числе еще не догруженные)
+     */
+    @Override
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+
+        // unload снимает и загруженные, и еще стоящие в очереди картинки
+        for (String path : assetPaths) {
+            assets.unload(path);
+        }
+        assetPaths.clear();
+        if (residency != null) {
+            residency.dispose();
+        }
+    }
+}
@@ -0,0 +1,725 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.EarClippingTriangulator;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ShortArray;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.player.CarHull;
+import ru.schneider_dev.tronfg.player.IBody;
+import ru.schneider_dev.tronfg.player.PlayerBody;
+import ru.schneider_dev.tronfg.player.PlayerState;
+import ru.schneider_dev.tronfg.player.UserData;
+
+/**
+ * Физика уровня без отрисовки: мир Box2D, земля из TMX, машина, финиш
+ * и правила прохождения (финиш, переворот, падение).
+ * Не использует GL и scene2d, поэтому может работать под headless backend.
+ */
+public class LevelSimulation implements Disposable {
+
+    public static final float WORLD_SCALE = 40;
+
+    // Режимы земли, выбираются свойством карты "terrain"
+    public static final String TERRAIN_POLYGON = "polygon";
+    public static final String TERRAIN_CHAIN = "chain";
+
+    public static final int FAIL_UPSIDE_DOWN = 1;
+    public static final int FAIL_FELL = 2;
+
+    private static final float LAND_RESTITUTION = TerrainBuilder.LAND_RESTITUTION;
+    private static final float UPSIDE_DOWN_TIMEOUT = 2.0f; // 2 секунды
+
+    public interface Listener {
+        void onCompleted();
+
+        void onFailed(int reason);
+    }
+
+    private Listener listener;
+
+    private World world;
+    // Подвижные тела (машина и колеса); статичную землю каждый кадр перебирать незачем
+    private Array<Body> dynamicBodies = new Array<Body>();
+    private PlayerBody player;
+    private PlayerState settledState = new PlayerState();
+    private Body finish;
+    private TerrainBuilder terrain;
+    private boolean mergeTerrain = Setting.MERGE_TERRAIN_BODIES;
+    private String terrainMode;
+    private boolean convexPieces = Setting.MERGE_CONVEX_PIECES;
+    private boolean terrainActivation = Setting.TERRAIN_ACTIVATION;
+    private TerrainActivation activation;
+    private boolean adaptiveSolver = Setting.ADAPTIVE_SOLVER;
+    private SolverQuality solver;
+    // Контакты машины с землей, которые сейчас касаются (по beginContact/endContact)
+    private int touchingContacts;
+    private long frameStepNanos;
+
+    private int levelWidth, levelHeight;
+
+    private float physicsAccumulator = 0f;
+    private float alpha = 1;
+    private boolean moveFrontKey, moveBackKey;
+
+    private boolean completed = false;
+    private boolean failed = false;
+
+    // Таймер переворота
+    private boolean isTimerRunning = false;
+    private float upsideDownTimer = 0f;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Создает мир по карте уровня и дает машине осесть на землю
+     * @param map        карта уровня (нужны слои land и items)
+     * @param carHull    корпус машины
+     */
+    public void build(TiledMap map, CarHull carHull) {
+        if (terrainMode == null) {
+            terrainMode = map.getProperties().get("terrain", TERRAIN_POLYGON, String.class);
+        }
+        build(LevelData.fromMap(map, terrainMode, convexPieces), carHull);
+    }
+
+    /**
+     * Создает мир по готовой геометрии уровня (см. {@link LevelData}).
+     * Режим земли и разбиение на куски уже заданы в данных, setTerrainMode и setConvexPieces не действуют.
+     * @param data       геометрия уровня
+     * @param carHull    корпус машины
+     */
+    public void build(LevelData data, CarHull carHull) {
+        build(data, carHull, null);
+    }
+
+    /**
+     * @param settled положение машины после оседания (см. {@link SettleCache}); null - дать машине осесть
+     */
+    public void build(LevelData data, CarHull carHull, PlayerState settled) {
+        world = new World(new Vector2(0, -Setting.GRAVITY), true);
+        world.setContactListener(contactListener);
+        terrain = new TerrainBuilder(world, Setting.TERRAIN_CHUNK_WIDTH, mergeTerrain);
+
+        levelWidth = data.getLevelWidth();
+        levelHeight = data.getLevelHeight();
+        terrainMode = data.terrainMode;
+
+        if (data.player == null) {
+            throw new Error("player not defined");
+        }
+        if (data.finish == null) {
+            throw new Error("finish not defined");
+        }
+
+        for (float[] vertices : data.polygons) {
+            terrain.addPolygon(vertices);
+        }
+        for (Rectangle rectangle : data.rectangles) {
+            terrain.addRectangle(rectangle);
+        }
+        for (int i = 0; i < data.chains.size; i++) {
+            terrain.addChain(data.chains.get(i), data.chainLoops.get(i));
+        }
+
+        player = new PlayerBody(data.player.x, data.player.y, carHull);
+        addBody(player);
+        finish = addFinish(new Rectangle(data.finish));
+
+        addRectangleLand(new Rectangle(-10, 0, 10, levelHeight));
+        addRectangleLand(new Rectangle(levelWidth + 10, 0, 10, levelHeight));
+
+        if (settled != null) {
+            settledState = settled;
+            player.reset(settledState);
+        } else {
+            int count = Setting.SETTLE_STEPS;
+            while (count-- > 0) {
+                world.step(1f / Setting.PHYSICS_STEP_RATE, Setting.VELOCITY_ITERATIONS_MAX, Setting.POSITION_ITERATIONS_MAX);
+            }
+            player.saveState(settledState);
+        }
+
+        Array<Body> bodies = new Array<Body>(world.getBodyCount());
+        world.getBodies(bodies);
+        for (Body body : bodies) {
+            if (body.getType() == BodyType.DynamicBody) dynamicBodies.add(body);
+        }
+        savePreviousStates();
+
+        if (adaptiveSolver) {
+            solver = new SolverQuality();
+        }
+        if (terrainActivation) {
+            activation = new TerrainActivation(terrain.getBodies(), Setting.TERRAIN_ACTIVE_MARGIN);
+            activation.update(player.car.getPosition().x);
+        }
+    }
+
+    /**
+     * Начинает попытку заново в том же мире: машина возвращается в положение
+     * после оседания, флаги финиша/проигрыша и таймер переворота сбрасываются
+     */
+    public void reset() {
+        player.reset(settledState);
+
+        physicsAccumulator = 0;
+        alpha = 1;
+        moveFrontKey = false;
+        moveBackKey = false;
+        completed = false;
+        failed = false;
+        stopUpsideDownTimer();
+
+        savePreviousStates();
+    }
+
+    /**
+     * Продвигает симуляцию на время кадра
+     * @param delta   время кадра
+     * @param playing идет ли игра (управление и правила уровня работают только в игре)
+     */
+    public void update(float delta, boolean playing) {
+        player.update();
+        if (solver != null) {
+            solver.addFrame(delta);
+        }
+
+        if (!Setting.FIXED_TIMESTEP) {
+            if (delta > 0.033f) delta = 0.033f;
+
+            if (playing) {
+                player.onKey(moveFrontKey, moveBackKey);
+            }
+            if (canStep()) {
+                step(delta);
+            }
+            alpha = 1;
+        } else {
+            float step = 1f / Setting.PHYSICS_STEP_RATE;
+
+            // Копим время кадра и отрабатываем его шагами одинаковой длины.
+            // Хвост, который не влез в MAX_PHYSICS_SUBSTEPS, отбрасываем.
+            physicsAccumulator += delta;
+            float maxAccumulator = step * Setting.MAX_PHYSICS_SUBSTEPS;
+            if (physicsAccumulator > maxAccumulator) {
+                physicsAccumulator = maxAccumulator;
+            }
+
+            while (physicsAccumulator >= step) {
+                savePreviousStates();
+
+                // Box2D обнуляет силы после каждого шага, поэтому газ подаем на каждом подшаге
+                if (playing) {
+                    player.onKey(moveFrontKey, moveBackKey);
+                }
+                if (canStep()) {
+                    step(step);
+                }
+                physicsAccumulator -= step;
+            }
+            alpha = physicsAccumulator / step;
+        }
+
+        // Правила уровня не работают после финиша или проигрыша
+        if (!playing || completed || failed) {
+            if (isTimerRunning) {
+                stopUpsideDownTimer();
+            }
+            return;
+        }
+
+        updateUpsideDownTimer(delta);
+
+        if (!failed && player.getY() < -100) {
+            fail(FAIL_FELL);
+        }
+    }
+
+    private void step(float timeStep) {
+        // Земля вокруг машины включается до шага, чтобы машина не провалилась
+        if (activation != null) {
+            activation.update(player.car.getPosition().x);
+        }
+
+        int velocityIterations = Setting.VELOCITY_ITERATIONS_MAX;
+        int positionIterations = Setting.POSITION_ITERATIONS_MAX;
+        if (solver != null) {
+            solver.update(touchingContacts);
+            velocityIterations = solver.getVelocityIterations();
+            positionIterations = solver.getPositionIterations();
+        }
+
+        // Время шага нужно только FrameProfiler; без DEBUG_GAME замер отрезает компилятор
+        if (Setting.DEBUG_GAME) {
+            long start = System.nanoTime();
+            world.step(timeStep, velocityIterations, positionIterations);
+            frameStepNanos += System.nanoTime() - start;
+        } else {
+            world.step(timeStep, velocityIterations, positionIterations);
+        }
+    }
+
+    /**
+     * Мир не шагает, когда машина доехала до правого края уровня
+     */
+    private boolean canStep() {
+        return player.getX() < levelWidth - 100;
+    }
+
+    public void setControls(boolean moveFrontKey, boolean moveBackKey) {
+        this.moveFrontKey = moveFrontKey;
+        this.moveBackKey = moveBackKey;
+    }
+
+    /**
+     * Запоминает положение подвижных тел перед очередным шагом физики
+     */
+    private void savePreviousStates() {
+        Body body;
+        UserData data;
+        for (int i = 0; i < dynamicBodies.size; i++) {
+            body = dynamicBodies.get(i);
+            data = (UserData) body.getUserData();
+
+            Vector2 position = body.getPosition();
+            data.prevX = position.x;
+            data.prevY = position.y;
+            data.prevAngle = body.getAngle();
+        }
+    }
+
+    // Что делать при контакте пары тел, см. contactType
+    public static final int CONTACT_NONE = 0;
+    public static final int CONTACT_FINISH = 1;
+    public static final int CONTACT_CAR_LAND = 2;
+    public static final int CONTACT_WHEEL_LAND = 3;
+
+    // Таблица реакций по паре UserData.kind, симметричная
+    private static final int[][] CONTACTS = new int[UserData.KIND_COUNT][UserData.KIND_COUNT];
+
+    static {
+        setContact(UserData.CAR, UserData.FINISH, CONTACT_FINISH);
+        setContact(UserData.FRONT_WHEEL, UserData.FINISH, CONTACT_FINISH);
+        setContact(UserData.REAR_WHEEL, UserData.FINISH, CONTACT_FINISH);
+        setContact(UserData.CAR, UserData.LAND, CONTACT_CAR_LAND);
+        setContact(UserData.FRONT_WHEEL, UserData.LAND, CONTACT_WHEEL_LAND);
+        setContact(UserData.REAR_WHEEL, UserData.LAND, CONTACT_WHEEL_LAND);
+    }
+
+    private static void setContact(int kindA, int kindB, int contact) {
+        CONTACTS[kindA][kindB] = contact;
+        CONTACTS[kindB][kindA] = contact;
+    }
+
+    /**
+     * Реакция на контакт тел с данными UserData.kind (порядок тел не важен)
+     * @return одна из CONTACT_*
+     */
+    public static int contactType(int kindA, int kindB) {
+        return CONTACTS[kindA][kindB];
+    }
+
+    private ContactListener contactListener = new ContactListener() {
+        @Override
+        public void beginContact(Contact contact) {
+            // Пары без машины отсекают биты фильтра Box2D, сюда они не доходят;
+            // колеса друг с другом сталкиваются, как раньше, но реакции у этой пары нет
+            UserData dataA = (UserData) contact.getFixtureA().getBody().getUserData();
+            UserData dataB = (UserData) contact.getFixtureB().getBody().getUserData();
+            if (dataA == null || dataB == null) return;
+
+            int type = contactType(dataA.kind, dataB.kind);
+            if (type == CONTACT_CAR_LAND || type == CONTACT_WHEEL_LAND) touchingContacts++;
+
+            switch (type) {
+                case CONTACT_FINISH:
+                    Gdx.app.log("Level", "🎯 FINISH CONTACT DETECTED! Player body: "
+                            + UserData.kindName(dataA.kind == UserData.FINISH ? dataB.kind : dataA.kind));
+                    complete();
+                    break;
+                case CONTACT_CAR_LAND:
+                    carTouchLand();
+                    break;
+                case CONTACT_WHEEL_LAND:
+                    player.touchGround();
+                    break;
+            }
+        }
+
+        @Override
+        public void endContact(Contact contact) {
+            // Вызывается и когда тело земли выключают (TerrainActivation) во время касания
+            UserData dataA = (UserData) contact.getFixtureA().getBody().getUserData();
+            UserData dataB = (UserData) contact.getFixtureB().getBody().getUserData();
+            if (dataA == null || dataB == null) return;
+
+            int type = contactType(dataA.kind, dataB.kind);
+            if (type == CONTACT_CAR_LAND || type == CONTACT_WHEEL_LAND) touchingContacts--;
+        }
+
+        @Override
+        public void preSolve(Contact contact, Manifold oldManifold) {
+
+        }
+
+        @Override
+        public void postSolve(Contact contact, ContactImpulse impulse) {
+
+        }
+    };
+
+    private void carTouchLand() {
+        if (player.isHasDestroyed()) return;
+
+        // Проверяем, что машина перевернута
+        if (isUpsideDown()) {
+            // Машина перевернута - запускаем таймер
+            if (!isTimerRunning) {
+                startUpsideDownTimer();
+            }
+        } else {
+            // Машина выровнялась - останавливаем таймер
+            if (isTimerRunning) {
+                stopUpsideDownTimer();
+            }
+        }
+        player.touchGround();
+    }
+
+    /**
+     * Машина перевернута, если угол корпуса в диапазоне 120-240°
+     */
+    private boolean isUpsideDown() {
+        // Нормализуем угол в диапазон 0-360°
+        float rotation = player.getRotation() % 360;
+        if (rotation < 0) rotation += 360;
+        return rotation > 120 && rotation < 240;
+    }
+
+    private void startUpsideDownTimer() {
+        isTimerRunning = true;
+        upsideDownTimer = 0f;
+    }
+
+    private void stopUpsideDownTimer() {
+        isTimerRunning = false;
+        upsideDownTimer = 0f;
+    }
+
+    private void updateUpsideDownTimer(float delta) {
+        if (!isTimerRunning) return;
+
+        // Дополнительная проверка - если машина уже не перевернута, останавливаем таймер
+        if (!isUpsideDown()) {
+            stopUpsideDownTimer();
+            return;
+        }
+
+        upsideDownTimer += delta;
+
+        if (upsideDownTimer >= UPSIDE_DOWN_TIMEOUT) {
+            // Время истекло - проигрыш
+            player.destroy();
+            stopUpsideDownTimer();
+            fail(FAIL_UPSIDE_DOWN);
+        }
+    }
+
+    private void complete() {
+        if (completed || failed) return;
+        completed = true;
+        if (listener != null) listener.onCompleted();
+    }
+
+    private void fail(int reason) {
+        if (completed || failed) return;
+        failed = true;
+        if (listener != null) listener.onFailed(reason);
+    }
+
+    private void addBody(IBody item) {
+        Body body = item.createBody(world);
+        if (body.getUserData() == null) body.setUserData(new UserData());
+    }
+
+    private Body addFinish(Rectangle rectangle) {
+        rectangle.x /= WORLD_SCALE;
+        rectangle.y /= WORLD_SCALE;
+        rectangle.width /= WORLD_SCALE;
+        rectangle.height /= WORLD_SCALE;
+
+        BodyDef def = new BodyDef();
+        def.type = BodyType.StaticBody;
+        def.linearDamping = 0;
+
+        FixtureDef fdef = new FixtureDef();
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(rectangle.width / 2, rectangle.height / 2);
+
+        fdef.shape = shape;
+        fdef.restitution = LAND_RESTITUTION;
+        fdef.density = 1;
+        fdef.isSensor = true;
+        fdef.filter.categoryBits = UserData.CATEGORY_FINISH;
+        fdef.filter.maskBits = UserData.MASK_FINISH;
+
+        Body body = world.createBody(def);
+        body.createFixture(fdef);
+        body.setTransform(rectangle.x + rectangle.width / 2, rectangle.y + rectangle.height / 2, 0);
+
+        body.setUserData(new UserData(null, UserData.FINISH));
+
+        shape.dispose();
+
+        return body;
+    }
+
+    private void addRectangleLand(Rectangle rectangle) {
+        rectangle.x /= WORLD_SCALE;
+        rectangle.y /= WORLD_SCALE;
+        rectangle.width /= WORLD_SCALE;
+        rectangle.height /= WORLD_SCALE;
+
+        terrain.addRectangle(rectangle);
+    }
+
+    /**
+     * Разбивает полигон на выпуклые куски для фикстур Box2D.
+     * Выбор между кусками и треугольниками (getTriangles) - за вызывающим.
+     */
+    public static Array<Polygon> getConvexPieces(Polygon polygon) {
+        return ConvexPartition.partition(polygon.getTransformedVertices());
+    }
+
+    public static Array<Polygon> getTriangles(Polygon polygon) {
+        Array<Polygon> trianglesPoly = new Array<Polygon>();
+
+        EarClippingTriangulator ear = new EarClippingTriangulator();
+        float vertices[] = polygon.getTransformedVertices();
+        ShortArray triangleIds = ear.computeTriangles(vertices);
+        Vector2 list[] = fromArray(vertices);
+
+        Polygon triangle;
+
+        int num = triangleIds.size / 3;
+        Vector2 triPoints[];
+        int i, j;
+
+        for (i = 0; i < num; i++) {
+            triPoints = new Vector2[3];
+            for (j = 0; j < 3; j++) {
+                triPoints[j] = list[triangleIds.get(i * 3 + j)];
+            }
+            triangle = new Polygon(toArray(triPoints));
+
+            if (Math.abs(triangle.area()) > 0.001f) {
+                trianglesPoly.add(triangle);
+            }
+        }
+        return trianglesPoly;
+
+    }
+
+    public static Vector2[] fromArray(float vertices[]) {
+        int num = vertices.length / 2;
+        int i;
+        Vector2 result[] = new Vector2[num];
+
+        for (i = 0; i < num; i++) {
+            result[i] = new Vector2(vertices[2 * i], vertices[2 * i + 1]);
+        }
+        return result;
+    }
+
+    public static float[] toArray(Vector2[] points) {
+        float vertices[] = new float[points.length * 2];
+        int i;
+
+        for (i = 0; i < points.length; i++) {
+            vertices[i * 2] = points[i].x;
+            vertices[i * 2 + 1] = points[i].y;
+
+        }
+        return vertices;
+    }
+
+    public static void scaleToWorld(Polygon polygon) {
+        float[] vertices = polygon.getTransformedVertices();
+        scaleToWorld(vertices);
+    }
+
+    public static void scaleToWorld(float[] vertices) {
+        int i;
+
+        for (i = 0; i < vertices.length; i++) {
+            vertices[i] /= WORLD_SCALE;
+        }
+    }
+
+    public static Vector2 calculateCentroid(float vertices[]) {
+        Vector2[] points = fromArray(vertices);
+        float x = 0;
+        float y = 0;
+        int pointCount = points.length;
+        for (int i = 0; i < pointCount - 1; i++) {
+            final Vector2 point = points[i];
+            x += point.x;
+            y += point.y;
+        }
+
+        x = x / pointCount;
+        y = y / pointCount - 33;
+
+        return new Vector2(x, y);
+    }
+
+    /**
+     * Переключает сборку земли: true - тела по участкам карты, false - тело на каждый треугольник.
+     * Вызывать до build().
+     */
+    public void setMergeTerrain(boolean mergeTerrain) {
+        this.mergeTerrain = mergeTerrain;
+    }
+
+    /**
+     * true - треугольники земли склеиваются в выпуклые куски, false - остаются треугольниками.
+     * Вызывать до build().
+     */
+    public void setConvexPieces(boolean convexPieces) {
+        this.convexPieces = convexPieces;
+    }
+
+    /**
+     * Принудительно задает режим земли (TERRAIN_POLYGON или TERRAIN_CHAIN) вместо свойства карты.
+     * Вызывать до build().
+     */
+    public void setTerrainMode(String terrainMode) {
+        this.terrainMode = terrainMode;
+    }
+
+    /**
+     * Включает или выключает TerrainActivation. Вызывать до build().
+     */
+    public void setTerrainActivation(boolean terrainActivation) {
+        this.terrainActivation = terrainActivation;
+    }
+
+    /**
+     * Включает или выключает SolverQuality; без него решатель всегда делает максимум итераций.
+     * Вызывать до build().
+     */
+    public void setAdaptiveSolver(boolean adaptiveSolver) {
+        this.adaptiveSolver = adaptiveSolver;
+    }
+
+    /**
+     * @return null, если итерации решателя не подстраиваются
+     */
+    public SolverQuality getSolverQuality() {
+        return solver;
+    }
+
+    /**
+     * @return сколько контактов машины с землей сейчас касаются
+     */
+    public int getTouchingContacts() {
+        return touchingContacts;
+    }
+
+    /**
+     * @return время всех world.step с прошлого вызова, нс (для FrameProfiler); без Setting.DEBUG_GAME всегда 0
+     */
+    public long takeStepNanos() {
+        long nanos = frameStepNanos;
+        frameStepNanos = 0;
+        return nanos;
+    }
+
+    /**
+     * @return null, если выключение далекой земли не используется
+     */
+    public TerrainActivation getTerrainActivation() {
+        return activation;
+    }
+
+    public String getTerrainMode() {
+        return terrainMode;
+    }
+
+    public TerrainBuilder getTerrain() {
+        return terrain;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * @return подвижные тела мира, у каждого есть UserData
+     */
+    public Array<Body> getDynamicBodies() {
+        return dynamicBodies;
+    }
+
+    /**
+     * @return положение машины после оседания
+     */
+    public PlayerState getSettledState() {
+        return settledState;
+    }
+
+    public PlayerBody getPlayer() {
+        return player;
+    }
+
+    public Body getFinish() {
+        return finish;
+    }
+
+    public int getLevelWidth() {
+        return levelWidth;
+    }
+
+    public int getLevelHeight() {
+        return levelHeight;
+    }
+
+    /**
+     * @return доля фиксированного шага, прошедшая после последнего world.step (для интерполяции)
+     */
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isUpsideDownTimerRunning() {
+        return isTimerRunning;
+    }
+
+    public float getUpsideDownTimeLeft() {
+        return UPSIDE_DOWN_TIMEOUT - upsideDownTimer;
+    }
+
+    @Override
+    public void dispose() {
+        if (world != null) world.dispose();
+    }
+}
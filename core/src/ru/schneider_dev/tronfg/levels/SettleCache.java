@@ -0,0 +1,133 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.player.CarHull;
+import ru.schneider_dev.tronfg.player.PlayerState;
+import ru.schneider_dev.tronfg.player.UserData;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Кэш положения машины после оседания на землю (Setting.SETTLE_STEPS шагов в LevelSimulation.build).
+ * Один маленький файл на уровень в локальной папке приложения. Ключ - хэш файла
+ * уровня, корпуса машины и всех настроек Setting, от которых зависит оседание
+ * (мир, земля, машина, колеса, шаги оседания), а также фильтров столкновений:
+ * если что-то из них поменялось, кэш не подходит и машина оседает заново.
+ * Файлы переживают обновление приложения, поэтому новая настройка физики машины
+ * заводится в Setting и добавляется в key(), а не пишется в PlayerBody числом.
+ */
+public class SettleCache {
+
+    private static final String DIR = "settle_cache";
+    private static final int MAGIC = 0x54525343; // "TRSC"
+    private static final int VERSION = 2;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * @param levelFile файл, из которого собран уровень (level.bin или level.tmx)
+     * @param hull      корпус машины
+     */
+    public static long key(FileHandle levelFile, CarHull hull) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, VERSION);
+
+        byte[] bytes = levelFile.readBytes();
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+
+        for (float[] piece : hull.pieces) {
+            for (float value : piece) {
+                hash = mix(hash, Float.floatToIntBits(value));
+            }
+        }
+
+        // Мир и земля
+        hash = mix(hash, Setting.GRAVITY);
+        hash = mix(hash, Setting.TERRAIN_CHUNK_WIDTH);
+        hash = mix(hash, Setting.MERGE_TERRAIN_BODIES ? 1 : 0);
+        hash = mix(hash, Setting.MERGE_CONVEX_PIECES ? 1 : 0);
+        hash = mix(hash, UserData.MASK_LAND);
+        hash = mix(hash, UserData.MASK_CAR);
+
+        // Машина: корпус, колеса, шарниры по положению колес
+        hash = mix(hash, Setting.CAR_RESTITUTION);
+        hash = mix(hash, Setting.CAR_DENSITY);
+        hash = mix(hash, Setting.WHEEL_RADIUS);
+        hash = mix(hash, Setting.WHEEL_RESTITUTION);
+        hash = mix(hash, Setting.WHEEL_FRICTION);
+        hash = mix(hash, Setting.WHEEL_DENSITY);
+        hash = mix(hash, Setting.WHEEL_ANGULAR_DAMPING);
+        hash = mix(hash, Setting.FRONT_WHEEL_X);
+        hash = mix(hash, Setting.REAR_WHEEL_X);
+        hash = mix(hash, Setting.WHEEL_Y);
+
+        // Цикл оседания
+        hash = mix(hash, Setting.SETTLE_STEPS);
+        hash = mix(hash, Setting.PHYSICS_STEP_RATE);
+        hash = mix(hash, Setting.VELOCITY_ITERATIONS_MAX);
+        hash = mix(hash, Setting.POSITION_ITERATIONS_MAX);
+        return hash;
+    }
+
+    private static long mix(long hash, float value) {
+        return mix(hash, Float.floatToIntBits(value));
+    }
+
+    private static long mix(long hash, int value) {
+        for (int i = 0; i < 4; i++) {
+            hash = (hash ^ ((value >>> (i * 8)) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public static FileHandle file(String levelName) {
+        return Gdx.files.local(DIR + "/" + levelName + ".bin");
+    }
+
+    /**
+     * @return сохраненное состояние или null, если файла нет или ключ не совпал
+     */
+    public static PlayerState read(FileHandle file, long key) {
+        if (!file.exists()) return null;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(file.readBytes());
+            if (buffer.getInt() != MAGIC || buffer.getLong() != key) {
+                Gdx.app.log("SettleCache", "♻️ " + file.name() + " is stale, settling again");
+                return null;
+            }
+
+            PlayerState state = new PlayerState();
+            buffer.asFloatBuffer().get(state.values);
+            return state;
+        } catch (RuntimeException e) {
+            Gdx.app.log("SettleCache", "⚠️ Cannot read " + file.name() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void write(FileHandle file, long key, PlayerState state) {
+        try {
+            DataOutputStream out = new DataOutputStream(file.write(false));
+            out.writeInt(MAGIC);
+            out.writeLong(key);
+            for (float value : state.values) {
+                out.writeFloat(value);
+            }
+            out.close();
+        } catch (IOException e) {
+            Gdx.app.log("SettleCache", "⚠️ Cannot write " + file.name() + ": " + e.getMessage());
+        } catch (GdxRuntimeException e) {
+            Gdx.app.log("SettleCache", "⚠️ Cannot write " + file.name() + ": " + e.getMessage());
+        }
+    }
+}
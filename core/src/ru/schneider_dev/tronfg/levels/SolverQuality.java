@@ -0,0 +1,83 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import ru.schneider_dev.tronfg.Setting;
+
+/**
+ * Число итераций решателя Box2D на шаг.
+ * <p>
+ * Пока машина в воздухе, решать нужно только шарниры колес - хватает минимума.
+ * Когда колеса или корпус касаются земли, шарниры под нагрузкой и нужен максимум.
+ * Если сглаженное время кадра не укладывается в FRAME_BUDGET_MS, итерации снижаются
+ * на одну за шаг, но на земле не ниже середины между минимумом и максимумом;
+ * когда время снова в бюджете, возвращаются к цели.
+ * <p>
+ * Смотрим на время кадра, а не на world.step: физика может быть дорогой, пока кадр успевает,
+ * и тогда резать точность незачем; а замер шага не нужен, когда профилирование выключено.
+ */
+public class SolverQuality {
+
+    // Сглаживание времени кадра: доля последнего кадра
+    private static final float SMOOTHING = 0.1f;
+
+    private int velocityIterations = Setting.VELOCITY_ITERATIONS_MAX;
+    private int positionIterations = Setting.POSITION_ITERATIONS_MAX;
+    private float averageFrameMs;
+
+    private long reducedSteps;
+    private long steps;
+
+    /**
+     * Учитывает время очередного кадра, раз за кадр
+     * @param delta время кадра, с (как пришло в LevelSimulation.update, до ограничения)
+     */
+    public void addFrame(float delta) {
+        averageFrameMs += (delta * 1000 - averageFrameMs) * SMOOTHING;
+    }
+
+    /**
+     * Выбирает итерации для следующего шага
+     * @param touchingContacts сколько контактов машины с землей сейчас касаются
+     */
+    public void update(int touchingContacts) {
+        int velocity, position;
+        if (touchingContacts == 0) {
+            velocity = Setting.VELOCITY_ITERATIONS_MIN;
+            position = Setting.POSITION_ITERATIONS_MIN;
+        } else if (averageFrameMs > Setting.FRAME_BUDGET_MS) {
+            velocity = Math.max(velocityIterations - 1, (Setting.VELOCITY_ITERATIONS_MIN + Setting.VELOCITY_ITERATIONS_MAX) / 2);
+            position = Math.max(positionIterations - 1, (Setting.POSITION_ITERATIONS_MIN + Setting.POSITION_ITERATIONS_MAX) / 2);
+        } else {
+            velocity = Setting.VELOCITY_ITERATIONS_MAX;
+            position = Setting.POSITION_ITERATIONS_MAX;
+        }
+
+        velocityIterations = velocity;
+        positionIterations = position;
+
+        steps++;
+        if (velocity < Setting.VELOCITY_ITERATIONS_MAX) reducedSteps++;
+    }
+
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+    /**
+     * @return сглаженное время кадра, мс
+     */
+    public float getAverageFrameMs() {
+        return averageFrameMs;
+    }
+
+    /**
+     * @return доля шагов с итерациями ниже максимума
+     */
+    public float getReducedShare() {
+        return steps > 0 ? reducedSteps / (float) steps : 0;
+    }
+}
@@ -0,0 +1,199 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+
+import java.util.Comparator;
+
+/**
+ * Строит линии поверхности земли для режима ChainShape.
+ * <p>
+ * Полигоны земли в уровнях нарисованы как "верх + стенки + плоское дно".
+ * Дно машина никогда не трогает, поэтому от каждого полигона остается ломаная
+ * "левая стенка - верх - правая стенка". Соседние участки, которые стыкуются
+ * стенками на одном X, сшиваются в одну ломаную по верху - так колесо
+ * не цепляется за вершину на стыке.
+ */
+public class SurfaceOutline {
+
+    // Допуски в единицах мира (1 = 40 пикселей)
+    private static final float BOTTOM_EPSILON = 0.05f; // насколько вершина может быть выше дна
+    private static final float JOIN_EPSILON = 0.05f; // расхождение стенок соседних участков по X
+    private static final float MAX_JOIN_STEP = 1.5f; // максимальная ступенька по Y на стыке
+    private static final float MIN_VERTEX_DISTANCE = 0.01f; // Box2D не любит слишком близкие вершины
+
+    public final float[] vertices;
+    public final boolean loop;
+
+    private SurfaceOutline(float[] vertices, boolean loop) {
+        this.vertices = vertices;
+        this.loop = loop;
+    }
+
+    /**
+     * @param polygons вершины полигонов земли в координатах мира
+     * @return ломаные поверхности; полигоны непривычной формы возвращаются замкнутыми контурами
+     */
+    public static Array<SurfaceOutline> build(Array<float[]> polygons) {
+        Array<SurfaceOutline> result = new Array<SurfaceOutline>();
+        Array<FloatArray> paths = new Array<FloatArray>();
+
+        for (float[] polygon : polygons) {
+            FloatArray path = openAtBottom(polygon);
+            if (path == null) {
+                result.add(new SurfaceOutline(dedupe(polygon, true), true));
+            } else {
+                paths.add(path);
+            }
+        }
+
+        paths.sort(new Comparator<FloatArray>() {
+            @Override
+            public int compare(FloatArray a, FloatArray b) {
+                return Float.compare(a.get(0), b.get(0));
+            }
+        });
+
+        FloatArray current = null;
+        for (FloatArray path : paths) {
+            if (current != null && canJoin(current, path)) {
+                trimEnd(current);
+                trimStart(path);
+                current.addAll(path);
+            } else {
+                if (current != null) {
+                    result.add(new SurfaceOutline(dedupe(current.toArray(), false), false));
+                }
+                current = path;
+            }
+        }
+        if (current != null) {
+            result.add(new SurfaceOutline(dedupe(current.toArray(), false), false));
+        }
+        return result;
+    }
+
+    /**
+     * Убирает из полигона дно и возвращает ломаную слева направо
+     * или null, если у полигона нет одного сплошного плоского дна
+     */
+    private static FloatArray openAtBottom(float[] polygon) {
+        int n = polygon.length / 2;
+        if (n < 3) return null;
+
+        float minY = Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minY = Math.min(minY, polygon[i * 2 + 1]);
+        }
+
+        boolean[] bottom = new boolean[n];
+        int bottomCount = 0;
+        for (int i = 0; i < n; i++) {
+            bottom[i] = polygon[i * 2 + 1] - minY < BOTTOM_EPSILON;
+            if (bottom[i]) bottomCount++;
+        }
+
+        // Дно должно быть одним непрерывным куском хотя бы из двух вершин
+        int start = -1;
+        for (int i = 0; i < n; i++) {
+            if (bottom[i] && !bottom[(i + n - 1) % n]) {
+                if (start >= 0) return null;
+                start = i;
+            }
+        }
+        if (start < 0 || bottomCount < 2 || bottomCount == n) return null;
+
+        // Идем от последней вершины дна по кругу до первой, пропуская ребра дна
+        int end = (start + bottomCount - 1) % n;
+        FloatArray path = new FloatArray();
+        int i = end;
+        while (true) {
+            path.add(polygon[i * 2], polygon[i * 2 + 1]);
+            if (i == start) break;
+            i = (i + 1) % n;
+        }
+
+        if (path.get(0) > path.get(path.size - 2)) {
+            reverse(path);
+        }
+        return path;
+    }
+
+    private static boolean canJoin(FloatArray left, FloatArray right) {
+        float leftX = left.get(left.size - 2);
+        float rightX = right.get(0);
+        if (Math.abs(leftX - rightX) > JOIN_EPSILON) return false;
+
+        float leftTop = left.get(topEndIndex(left) + 1);
+        float rightTop = right.get(topStartIndex(right) + 1);
+        return Math.abs(leftTop - rightTop) < MAX_JOIN_STEP;
+    }
+
+    /**
+     * Индекс X верхнего угла правой стенки
+     */
+    private static int topEndIndex(FloatArray path) {
+        int last = path.size - 2;
+        int i = last;
+        while (i >= 2 && Math.abs(path.get(i - 2) - path.get(last)) < JOIN_EPSILON) {
+            i -= 2;
+        }
+        return i;
+    }
+
+    /**
+     * Индекс X верхнего угла левой стенки
+     */
+    private static int topStartIndex(FloatArray path) {
+        int i = 0;
+        while (i + 2 < path.size - 2 && Math.abs(path.get(i + 2) - path.get(0)) < JOIN_EPSILON) {
+            i += 2;
+        }
+        return i;
+    }
+
+    private static void trimEnd(FloatArray path) {
+        path.truncate(topEndIndex(path) + 2);
+    }
+
+    private static void trimStart(FloatArray path) {
+        int top = topStartIndex(path);
+        if (top > 0) {
+            path.removeRange(0, top - 1);
+        }
+    }
+
+    private static void reverse(FloatArray path) {
+        int n = path.size / 2;
+        for (int i = 0; i < n / 2; i++) {
+            int j = n - 1 - i;
+            float x = path.get(i * 2);
+            float y = path.get(i * 2 + 1);
+            path.set(i * 2, path.get(j * 2));
+            path.set(i * 2 + 1, path.get(j * 2 + 1));
+            path.set(j * 2, x);
+            path.set(j * 2 + 1, y);
+        }
+    }
+
+    private static float[] dedupe(float[] vertices, boolean loop) {
+        FloatArray result = new FloatArray(vertices.length);
+        for (int i = 0; i < vertices.length; i += 2) {
+            if (result.size > 0) {
+                float dx = vertices[i] - result.get(result.size - 2);
+                float dy = vertices[i + 1] - result.get(result.size - 1);
+                if (dx * dx + dy * dy < MIN_VERTEX_DISTANCE * MIN_VERTEX_DISTANCE) continue;
+            }
+            result.add(vertices[i], vertices[i + 1]);
+        }
+        if (loop && result.size > 4) {
+            float dx = result.get(0) - result.get(result.size - 2);
+            float dy = result.get(1) - result.get(result.size - 1);
+            if (dx * dx + dy * dy < MIN_VERTEX_DISTANCE * MIN_VERTEX_DISTANCE) {
+                result.truncate(result.size - 2);
+            }
+        }
+        return result.toArray();
+    }
+}
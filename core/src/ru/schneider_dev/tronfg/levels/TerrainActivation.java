@@ -0,0 +1,134 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.EdgeShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Выключает тела земли, далекие от машины: неактивное тело Box2D убирает
+ * из broadphase, и world.step о нем не думает.
+ * <p>
+ * Тела берутся из TerrainBuilder (участки карты или отдельные куски, если склейка выключена),
+ * в том числе стенки по краям уровня. Тело включается, когда до него по X меньше margin,
+ * и выключается, когда больше margin * 1.5 - запас, чтобы тело не переключалось туда-сюда.
+ * Финиш - отдельное тело, его это не касается.
+ */
+public class TerrainActivation {
+
+    private static final float HYSTERESIS = 1.5f;
+
+    private final Array<Body> bodies;
+    private final float[] minX;
+    private final float[] maxX;
+    private final boolean[] active;
+    private final float margin;
+
+    private int activeCount;
+    private int switches;
+
+    /**
+     * @param bodies тела земли
+     * @param margin расстояние от машины в пикселях уровня
+     */
+    public TerrainActivation(Array<Body> bodies, float margin) {
+        this.bodies = bodies;
+        this.margin = margin / LevelSimulation.WORLD_SCALE;
+
+        minX = new float[bodies.size];
+        maxX = new float[bodies.size];
+        active = new boolean[bodies.size];
+
+        Vector2 vertex = new Vector2();
+        for (int i = 0; i < bodies.size; i++) {
+            Body body = bodies.get(i);
+            minX[i] = Float.MAX_VALUE;
+            maxX[i] = -Float.MAX_VALUE;
+            for (Fixture fixture : body.getFixtureList()) {
+                addBounds(i, fixture.getShape(), vertex);
+            }
+            // Вершины фикстур заданы относительно тела
+            minX[i] += body.getPosition().x;
+            maxX[i] += body.getPosition().x;
+
+            active[i] = body.isActive();
+            if (active[i]) activeCount++;
+        }
+    }
+
+    private void addBounds(int index, Shape shape, Vector2 vertex) {
+        if (shape instanceof PolygonShape) {
+            PolygonShape polygon = (PolygonShape) shape;
+            for (int v = 0; v < polygon.getVertexCount(); v++) {
+                polygon.getVertex(v, vertex);
+                addX(index, vertex.x);
+            }
+        } else if (shape instanceof ChainShape) {
+            ChainShape chain = (ChainShape) shape;
+            for (int v = 0; v < chain.getVertexCount(); v++) {
+                chain.getVertex(v, vertex);
+                addX(index, vertex.x);
+            }
+        } else if (shape instanceof EdgeShape) {
+            EdgeShape edge = (EdgeShape) shape;
+            edge.getVertex1(vertex);
+            addX(index, vertex.x);
+            edge.getVertex2(vertex);
+            addX(index, vertex.x);
+        } else {
+            // Круги на земле не встречаются; на всякий случай тело не выключается
+            minX[index] = -Float.MAX_VALUE;
+            maxX[index] = Float.MAX_VALUE;
+        }
+    }
+
+    private void addX(int index, float x) {
+        if (x < minX[index]) minX[index] = x;
+        if (x > maxX[index]) maxX[index] = x;
+    }
+
+    /**
+     * Включает тела рядом с машиной и выключает далекие. Вызывать перед world.step
+     * @param carX координата X машины в единицах мира
+     */
+    public void update(float carX) {
+        for (int i = 0; i < active.length; i++) {
+            float distance = Math.max(minX[i] - carX, carX - maxX[i]);
+
+            if (!active[i] && distance < margin) {
+                bodies.get(i).setActive(true);
+                active[i] = true;
+                activeCount++;
+                switches++;
+            } else if (active[i] && distance > margin * HYSTERESIS) {
+                bodies.get(i).setActive(false);
+                active[i] = false;
+                activeCount--;
+                switches++;
+            }
+        }
+    }
+
+    /**
+     * @return сколько тел земли сейчас в мире
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getBodyCount() {
+        return active.length;
+    }
+
+    /**
+     * @return сколько раз тела включались и выключались
+     */
+    public int getSwitches() {
+        return switches;
+    }
+}
@@ -0,0 +1,198 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import ru.schneider_dev.tronfg.player.UserData;
+
+/**
+ * Собирает статическую землю уровня. Все фикстуры одного участка карты
+ * шириной chunkWidth вешаются на одно статическое тело, а не на отдельное
+ * тело для каждого треугольника.
+ */
+public class TerrainBuilder {
+
+    public static final float LAND_RESTITUTION = 0.5f;
+
+    private final World world;
+    private final float chunkWidth;
+    private final boolean merge;
+
+    private final IntMap<Body> chunks = new IntMap<Body>();
+    private final Array<Body> bodies = new Array<Body>();
+    private int fixtureCount = 0;
+
+    /**
+     * @param world      мир Box2D
+     * @param chunkWidth ширина участка в пикселях уровня, 0 - вся земля одним телом
+     * @param merge      false - старый режим, отдельное тело на каждую фикстуру
+     */
+    public TerrainBuilder(World world, float chunkWidth, boolean merge) {
+        this.world = world;
+        this.chunkWidth = chunkWidth / LevelSimulation.WORLD_SCALE;
+        this.merge = merge;
+    }
+
+    /**
+     * @param pieces выпуклые куски полигона земли в координатах мира
+     */
+    public void addPolygons(Array<Polygon> pieces) {
+        for (Polygon poly : pieces) {
+            addPolygon(poly.getTransformedVertices());
+        }
+    }
+
+    /**
+     * @param vertices выпуклый кусок земли в координатах мира
+     */
+    public void addPolygon(float[] vertices) {
+        PolygonShape shape = new PolygonShape();
+        shape.set(vertices);
+        addFixture(shape, centerX(vertices), 1);
+        shape.dispose();
+    }
+
+    /**
+     * @param rectangle прямоугольник земли в координатах мира
+     */
+    public void addRectangle(Rectangle rectangle) {
+        float cx = rectangle.x + rectangle.width / 2;
+        float cy = rectangle.y + rectangle.height / 2;
+
+        PolygonShape shape = new PolygonShape();
+        if (merge) {
+            shape.setAsBox(rectangle.width / 2, rectangle.height / 2, new Vector2(cx, cy), 0);
+            addFixture(shape, cx, 0.2f);
+        } else {
+            // Старый режим: коробка в центре тела, тело переносится на место
+            shape.setAsBox(rectangle.width / 2, rectangle.height / 2);
+            Body body = addFixture(shape, cx, 0.2f);
+            body.setTransform(cx, cy, 0);
+        }
+        shape.dispose();
+    }
+
+    /**
+     * Добавляет линию поверхности (режим ChainShape).
+     * Длинная ломаная режется по участкам карты; у каждого куска задаются
+     * "призрачные" вершины соседей, чтобы колесо не цеплялось за стык кусков.
+     * @param vertices вершины в координатах мира
+     * @param loop     замкнутый контур или открытая ломаная
+     */
+    public void addChain(float[] vertices, boolean loop) {
+        int n = vertices.length / 2;
+        if (n < 2) return;
+
+        if (loop || !merge) {
+            ChainShape shape = new ChainShape();
+            if (loop) {
+                shape.createLoop(vertices);
+            } else {
+                shape.createChain(vertices);
+            }
+            addFixture(shape, centerX(vertices), 1);
+            shape.dispose();
+            return;
+        }
+
+        int first = 0;
+        while (first < n - 1) {
+            int chunk = chunkIndex(edgeCenterX(vertices, first));
+            int last = first + 1;
+            while (last < n - 1 && chunkIndex(edgeCenterX(vertices, last)) == chunk) {
+                last++;
+            }
+
+            ChainShape shape = new ChainShape();
+            shape.createChain(vertices, first * 2, (last - first + 1) * 2);
+            if (first > 0) {
+                shape.setPrevVertex(vertices[first * 2 - 2], vertices[first * 2 - 1]);
+            }
+            if (last < n - 1) {
+                shape.setNextVertex(vertices[last * 2 + 2], vertices[last * 2 + 3]);
+            }
+            addFixture(shape, getChunkBody(chunk), 1);
+            shape.dispose();
+
+            first = last;
+        }
+    }
+
+    private Body addFixture(Shape shape, float x, float friction) {
+        return addFixture(shape, merge ? getChunkBody(chunkIndex(x)) : createLandBody(), friction);
+    }
+
+    private Body addFixture(Shape shape, Body body, float friction) {
+
+        FixtureDef fDef = new FixtureDef();
+        fDef.shape = shape;
+        fDef.restitution = LAND_RESTITUTION;
+        fDef.friction = friction;
+        fDef.density = 1;
+        fDef.filter.categoryBits = UserData.CATEGORY_LAND;
+        fDef.filter.maskBits = UserData.MASK_LAND;
+
+        body.createFixture(fDef);
+        fixtureCount++;
+        return body;
+    }
+
+    private int chunkIndex(float x) {
+        return chunkWidth > 0 ? (int) Math.floor(x / chunkWidth) : 0;
+    }
+
+    private Body getChunkBody(int index) {
+        Body body = chunks.get(index);
+        if (body == null) {
+            body = createLandBody();
+            chunks.put(index, body);
+        }
+        return body;
+    }
+
+    private Body createLandBody() {
+        BodyDef def = new BodyDef();
+        def.type = BodyType.StaticBody;
+        def.linearDamping = 0;
+
+        Body body = world.createBody(def);
+        body.setUserData(new UserData(null, UserData.LAND));
+        bodies.add(body);
+        return body;
+    }
+
+    private static float edgeCenterX(float[] vertices, int index) {
+        return (vertices[index * 2] + vertices[index * 2 + 2]) / 2;
+    }
+
+    private static float centerX(float[] vertices) {
+        float x = 0;
+        int num = vertices.length / 2;
+        for (int i = 0; i < num; i++) {
+            x += vertices[i * 2];
+        }
+        return x / num;
+    }
+
+    /**
+     * @return все тела земли, созданные этим построителем
+     */
+    public Array<Body> getBodies() {
+        return bodies;
+    }
+
+    public int getFixtureCount() {
+        return fixtureCount;
+    }
+}
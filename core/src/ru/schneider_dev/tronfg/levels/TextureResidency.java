@@ -0,0 +1,231 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.utils.Array;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.media.TextureFormats;
+
+/**
+ * Держит в памяти только те картинки фона, что рядом с камерой.
+ * Слой начинает грузиться через AssetManager за IMAGE_PRELOAD_DISTANCE до края экрана,
+ * выгружается, когда ушел вдвое дальше, и одновременно загружено не больше
+ * RESIDENT_IMAGE_LAYERS слоев (ближайшие к камере).
+ * <p>
+ * Пока картинка не загружена, у слоя карты нет региона и LevelBackground его не рисует.
+ * Кадры, когда такой слой уже в камере, считаются опоздавшими.
+ */
+public class TextureResidency {
+
+    private final AssetManager assets;
+    private final Array<LevelData.ImageLayer> layers;
+    private final TextureLoader.TextureParameter params;
+
+    private final TiledMapImageLayer[] mapLayers;
+    private final boolean[] requested;
+    private final boolean[] keep;
+    private final float[] distances;
+    private final int[] bytes;
+    private int requestedCount;
+
+    private int residentBytes;
+    private int peakResidentBytes;
+    private int loads;
+    private int lateFrames;
+
+    public TextureResidency(AssetManager assets, Array<LevelData.ImageLayer> layers) {
+        this.assets = assets;
+        this.layers = layers;
+
+        params = new TextureLoader.TextureParameter();
+        params.genMipMaps = true;
+        params.minFilter = TextureFilter.MipMapLinearNearest;
+        params.magFilter = TextureFilter.Linear;
+
+        mapLayers = new TiledMapImageLayer[layers.size];
+        requested = new boolean[layers.size];
+        keep = new boolean[layers.size];
+        distances = new float[layers.size];
+        bytes = new int[layers.size];
+    }
+
+    /**
+     * Ставит в очередь нужные слои и выгружает лишние, ничего не догружая
+     * @param left  левый край экрана в пикселях уровня
+     * @param right правый край экрана
+     */
+    public void request(float left, float right) {
+        for (int i = 0; i < layers.size; i++) {
+            distances[i] = distance(layerX(i), layers.get(i).width, left, right);
+            keep[i] = false;
+        }
+
+        // Ближайшие к камере слои в пределах IMAGE_PRELOAD_DISTANCE, не больше лимита
+        for (int n = 0; n < Setting.RESIDENT_IMAGE_LAYERS; n++) {
+            int nearest = -1;
+            for (int i = 0; i < layers.size; i++) {
+                if (keep[i] || distances[i] > Setting.IMAGE_PRELOAD_DISTANCE) continue;
+                if (nearest == -1 || distances[i] < distances[nearest]) nearest = i;
+            }
+            if (nearest == -1) break;
+            keep[nearest] = true;
+        }
+
+        for (int i = 0; i < layers.size; i++) {
+            if (requested[i] && !keep[i] && distances[i] > Setting.IMAGE_PRELOAD_DISTANCE * 2) {
+                release(i);
+            }
+        }
+        for (int i = 0; i < layers.size; i++) {
+            if (keep[i] && !requested[i]) {
+                load(i);
+            }
+        }
+
+        // Лимит важнее запаса по расстоянию: выгружаем самые далекие из ненужных
+        while (requestedCount > Setting.RESIDENT_IMAGE_LAYERS) {
+            int farthest = -1;
+            for (int i = 0; i < layers.size; i++) {
+                if (!requested[i] || keep[i]) continue;
+                if (farthest == -1 || distances[i] > distances[farthest]) farthest = i;
+            }
+            if (farthest == -1) break;
+            release(farthest);
+        }
+    }
+
+    /**
+     * Вызывается каждый кадр: очередь и подстановка загруженных текстур.
+     * Догружает AssetManager в TRONgame.render, в общем бюджете кадра.
+     */
+    public void update(float left, float right) {
+        request(left, right);
+
+        boolean late = false;
+        for (int i = 0; i < layers.size; i++) {
+            if (requested[i] && bytes[i] == 0 && assets.isLoaded(layers.get(i).path)) {
+                attach(i);
+            }
+            if (bytes[i] == 0 && distances[i] == 0) {
+                late = true;
+            }
+        }
+        if (late) lateFrames++;
+    }
+
+    /**
+     * Догружает синхронно все, что стоит в очереди
+     */
+    public void finishLoading() {
+        for (int i = 0; i < layers.size; i++) {
+            if (requested[i] && bytes[i] == 0) {
+                assets.finishLoadingAsset(layers.get(i).path);
+                attach(i);
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        for (int i = 0; i < layers.size; i++) {
+            if (requested[i] && !assets.isLoaded(layers.get(i).path)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Связывает слой карты с картинкой; если она уже загружена, подставляет регион
+     */
+    public void setMapLayer(int index, TiledMapImageLayer layer) {
+        mapLayers[index] = layer;
+        if (requested[index] && assets.isLoaded(layers.get(index).path)) {
+            attach(index);
+        }
+    }
+
+    private void load(int index) {
+        assets.load(layers.get(index).path, Texture.class, params);
+        requested[index] = true;
+        requestedCount++;
+    }
+
+    private void attach(int index) {
+        Texture texture = assets.get(layers.get(index).path, Texture.class);
+        if (mapLayers[index] != null) {
+            mapLayers[index].setTextureRegion(TextureFormats.createRegion(texture));
+        }
+        if (bytes[index] == 0) {
+            bytes[index] = TextureFormats.getTextureBytes(texture);
+            residentBytes += bytes[index];
+            peakResidentBytes = Math.max(peakResidentBytes, residentBytes);
+            loads++;
+        }
+    }
+
+    private void release(int index) {
+        assets.unload(layers.get(index).path);
+        if (mapLayers[index] != null) {
+            mapLayers[index].setTextureRegion(null);
+        }
+        residentBytes -= bytes[index];
+        bytes[index] = 0;
+        requested[index] = false;
+        requestedCount--;
+    }
+
+    /**
+     * Левый край слоя там, где его рисует LevelBackground (и OrthogonalTiledMapRenderer) - getX() слоя карты.
+     * Смещение слоя (offsetx в TMX) в libGDX 1.11 уже входит в getX(): TmxMapLoader кладет его в x слоя,
+     * и LevelData.ImageLayer.x берется оттуда же, так что отдельно offsetX не прибавляется.
+     */
+    private float layerX(int index) {
+        return mapLayers[index] != null ? mapLayers[index].getX() : layers.get(index).x;
+    }
+
+    /**
+     * @return расстояние по X от слоя до экрана, 0 - слой в кадре
+     */
+    static float distance(float x, float width, float left, float right) {
+        if (x + width <= left) return left - (x + width);
+        if (x >= right) return x - right;
+        return 0;
+    }
+
+    /**
+     * @return примерный объем загруженных картинок в видеопамяти, байт
+     */
+    public int getResidentBytes() {
+        return residentBytes;
+    }
+
+    public int getPeakResidentBytes() {
+        return peakResidentBytes;
+    }
+
+    public int getResidentCount() {
+        return requestedCount;
+    }
+
+    /**
+     * @return сколько кадров в кадре был слой, картинка которого еще не загрузилась
+     */
+    public int getLateFrames() {
+        return lateFrames;
+    }
+
+    /**
+     * Выгружает все картинки, в том числе еще стоящие в очереди
+     */
+    public void dispose() {
+        Gdx.app.log("TextureResidency", "🖼 images loaded: " + loads + ", peak " + peakResidentBytes / 1024
+                + " KB of " + layers.size + " layers, late frames: " + lateFrames);
+
+        for (int i = 0; i < layers.size; i++) {
+            if (requested[i]) release(i);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.schneider_dev.tronfg.media;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Шрифты FreeType по паре (файл, размер). Каждая пара генерируется один раз через
+ * AssetManager и живет, пока на нее есть ссылки: acquire() добавляет ссылку,
+ * release() снимает, на последней шрифт с его текстурами выгружается.
+ */
+public class FontCache {
+
+    public static final String GROBOLD = "fonts/GROBOLD.ttf";
+    public static final String TR2N = "fonts/Tr2n.ttf";
+
+    private final AssetManager assetManager;
+    private final ObjectIntMap<String> references = new ObjectIntMap<String>();
+    // Сколько раз шрифт ставился в очередь на генерацию, для проверки повторного использования
+    private int generatedCount;
+
+    // Запасной шрифт, если FreeType не смог сгенерировать нужный
+    private BitmapFont fallback;
+
+    public FontCache(AssetManager assetManager) {
+        this.assetManager = assetManager;
+    }
+
+    /**
+     * Ставит шрифт в очередь AssetManager и добавляет ссылку, не дожидаясь загрузки.
+     * Для шрифтов, которые грузятся вместе с остальными ресурсами при старте.
+     */
+    public void load(String fontFile, int size) {
+        String name = assetName(fontFile, size);
+        int count = references.get(name, 0);
+        references.put(name, count + 1);
+        if (count > 0) return;
+
+        generatedCount++;
+        FreetypeFontLoader.FreeTypeFontLoaderParameter params = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
+        params.fontFileName = fontFile;
+        params.fontParameters.size = size;
+        assetManager.load(name, BitmapFont.class, params);
+    }
+
+    /**
+     * Добавляет ссылку и возвращает шрифт; если его еще нет - генерирует сразу.
+     * Каждому acquire() должен соответствовать release().
+     */
+    public BitmapFont acquire(String fontFile, int size) {
+        String name = assetName(fontFile, size);
+        load(fontFile, size);
+
+        try {
+            if (!assetManager.isLoaded(name)) {
+                Gdx.app.log("FontCache", "🔤 Generating " + name);
+                assetManager.finishLoadingAsset(name);
+            }
+            return assetManager.get(name, BitmapFont.class);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.log("FontCache", "⚠️ Cannot generate " + name + ": " + e.getMessage());
+            return getFallback();
+        }
+    }
+
+    /**
+     * Уже загруженный шрифт, без добавления ссылки
+     */
+    public BitmapFont get(String fontFile, int size) {
+        return assetManager.get(assetName(fontFile, size), BitmapFont.class);
+    }
+
+    public void release(String fontFile, int size) {
+        String name = assetName(fontFile, size);
+        int count = references.get(name, 0);
+        if (count == 0) return;
+
+        if (count > 1) {
+            references.put(name, count - 1);
+            return;
+        }
+        references.remove(name, 0);
+        if (assetManager.contains(name)) {
+            assetManager.unload(name);
+        }
+    }
+
+    /**
+     * @return сколько раз за время жизни кэша шрифт генерировался заново;
+     * не растет, пока пары (файл, размер) переиспользуются
+     */
+    public int getGeneratedCount() {
+        return generatedCount;
+    }
+
+    private BitmapFont getFallback() {
+        if (fallback == null) {
+            fallback = new BitmapFont();
+        }
+        return fallback;
+    }
+
+    /**
+     * Имя шрифта в AssetManager: fonts/GROBOLD.ttf и 30 дают GROBOLD30.ttf
+     */
+    private static String assetName(String fontFile, int size) {
+        int start = fontFile.lastIndexOf('/') + 1;
+        int end = fontFile.lastIndexOf('.');
+        return fontFile.substring(start, end) + size + ".ttf";
+    }
+
+    public void dispose() {
+        if (fallback != null) {
+            fallback.dispose();
+            fallback = null;
+        }
+    }
+}
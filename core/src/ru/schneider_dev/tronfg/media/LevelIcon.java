@@ -24,25 +24,25 @@ public class LevelIcon extends Group {
     public LevelIcon(int id) {
         this.id = id;
 
-        hiliteImg = new Image(TRONgame.atlas.findRegion("level_icon_hilite"));
+        hiliteImg = new Image(Regions.LEVEL_ICON_HILITE.get());
         addActor(hiliteImg);
         hiliteImg.setVisible(false);
 
-        bg = new Image(TRONgame.atlas.findRegion("level_icon_bg"));
+        bg = new Image(Regions.LEVEL_ICON_BG.get());
         addActor(bg);
         setSize(bg.getWidth(), bg.getHeight());
 
         hiliteImg.setX((getWidth()-hiliteImg.getWidth())/2);
         hiliteImg.setY((getHeight()-hiliteImg.getHeight())/2);
 
-        bgDown = new Image(TRONgame.atlas.findRegion("level_icon_bg_down"));
+        bgDown = new Image(Regions.LEVEL_ICON_BG_DOWN.get());
         addActor(bgDown);
 
         bgDown.setX(bg.getX() + (bg.getWidth()-bgDown.getWidth())/2);
         bgDown.setY(bg.getY() + (bg.getHeight()-bgDown.getHeight())/2);
         bgDown.setVisible(false);
 
-        lockImg = new Image(TRONgame.atlas.findRegion("level_icon_bg_lock"));
+        lockImg = new Image(Regions.LEVEL_ICON_BG_LOCK.get());
 //        lockImg = new Image(TRONgame.atlas.findRegion("level_icon_lock"));
         lockImg.setX((getWidth()-lockImg.getWidth())/2);
         lockImg.setY((getHeight()-lockImg.getHeight())/2);
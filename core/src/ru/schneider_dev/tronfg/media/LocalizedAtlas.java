@@ -0,0 +1,55 @@
+package ru.schneider_dev.tronfg.media;
+
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Общий атлас картинок без текста плюс необязательное наложение языка
+ * (картинки с надписями, см. utils.Packer). Регион ищется сначала в наложении,
+ * потом в общем атласе.
+ * <p>
+ * Только поиск регионов: это не TextureAtlas, чтобы getRegions(), createSprite() и
+ * createPatch() базового атласа не отдавали картинки мимо наложения. Спрайты и патчи
+ * строятся из найденного региона. Сами атласы принадлежат AssetManager, здесь они не выгружаются.
+ */
+public class LocalizedAtlas {
+
+    public static final String SHARED_PATH = "images/pack.atlas";
+
+    private final TextureAtlas shared;
+    private final TextureAtlas overlay;
+
+    /**
+     * @param overlay атлас языка или null, если своих картинок у языка нет
+     */
+    public LocalizedAtlas(TextureAtlas shared, TextureAtlas overlay) {
+        this.shared = shared;
+        this.overlay = overlay;
+    }
+
+    public AtlasRegion findRegion(String name) {
+        if (overlay != null) {
+            AtlasRegion region = overlay.findRegion(name);
+            if (region != null) return region;
+        }
+        return shared.findRegion(name);
+    }
+
+    public AtlasRegion findRegion(String name, int index) {
+        if (overlay != null) {
+            AtlasRegion region = overlay.findRegion(name, index);
+            if (region != null) return region;
+        }
+        return shared.findRegion(name, index);
+    }
+
+    public Array<AtlasRegion> findRegions(String name) {
+        if (overlay != null) {
+            Array<AtlasRegion> regions = overlay.findRegions(name);
+            if (regions.size > 0) return regions;
+        }
+        return shared.findRegions(name);
+    }
+}
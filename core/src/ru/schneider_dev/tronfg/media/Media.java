@@ -100,8 +100,11 @@ public class Media {
         }
     }
 
-    public boolean update() {
-        return assetManager.update();
+    /**
+     * Сама загрузка идет в TRONgame.render, здесь только проверка
+     */
+    public boolean isMusicLoaded(String name) {
+        return assetManager.isLoaded("musics/" + name);
     }
 
 }
@@ -0,0 +1,92 @@
+package ru.schneider_dev.tronfg.media;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Все регионы атласа, которые использует игра. Имена ищутся в атласе один раз
+ * в {@link #resolve}, после загрузки ресурсов; дальше экраны берут готовый регион
+ * у константы без поиска по строке. Если какого-то имени в атласе нет, игра падает
+ * сразу при старте, а не когда дойдет до нужного экрана.
+ */
+public class Regions {
+
+    private static final Array<Region> all = new Array<Region>();
+
+    public static final Region INTRO_BG = new Region("intro_bg");
+    public static final Region LEVEL_BG = new Region("level_bg");
+
+    public static final Region ROVER = new Region("rover");
+    public static final Region ROVER_MODEL = new Region("rover_model");
+    public static final Region FRONT_WHEEL = new Region("front_wheel");
+    public static final Region REAR_WHEEL = new Region("rear_wheel");
+
+    public static final Region JUMP_UP = new Region("jump_up");
+    public static final Region JUMP_UP_PRESSED = new Region("jump_up_up");
+    public static final Region JUMP_DOWN = new Region("jump_down");
+    public static final Region JUMP_DOWN_PRESSED = new Region("jump_down_down");
+    public static final Region PAUSE = new Region("pause");
+    public static final Region RESTART = new Region("restart_btn");
+    public static final Region RESTART_PRESSED = new Region("restart_btn_dwn");
+
+    public static final Region JOYSTICK = new Region("joystick");
+    public static final Region JOYSTICK_LEFT = new Region("joystick_left");
+    public static final Region JOYSTICK_RIGHT = new Region("joystick_right");
+
+    public static final Region LEVEL_ICON_BG = new Region("level_icon_bg");
+    public static final Region LEVEL_ICON_BG_DOWN = new Region("level_icon_bg_down");
+    public static final Region LEVEL_ICON_BG_LOCK = new Region("level_icon_bg_lock");
+    public static final Region LEVEL_ICON_HILITE = new Region("level_icon_hilite");
+
+    /**
+     * Регион атласа по заранее известному имени
+     */
+    public static class Region {
+        public final String name;
+        private AtlasRegion region;
+
+        private Region(String name) {
+            this.name = name;
+            all.add(this);
+        }
+
+        public AtlasRegion get() {
+            if (region == null) {
+                throw new GdxRuntimeException("Atlas region is not resolved yet: " + name);
+            }
+            return region;
+        }
+    }
+
+    /**
+     * @return все объявленные регионы (для проверок)
+     */
+    static Array<Region> getAll() {
+        return all;
+    }
+
+    /**
+     * Находит в атласе все регионы. Вызывается после загрузки атласа и при его замене.
+     * @throws GdxRuntimeException со списком имен, которых в атласе нет
+     */
+    public static void resolve(LocalizedAtlas atlas) {
+        long start = System.nanoTime();
+
+        StringBuilder missing = new StringBuilder();
+        for (Region handle : all) {
+            handle.region = atlas.findRegion(handle.name);
+            if (handle.region == null) {
+                if (missing.length() > 0) missing.append(", ");
+                missing.append(handle.name);
+            }
+        }
+        if (missing.length() > 0) {
+            throw new GdxRuntimeException("Missing atlas regions: " + missing);
+        }
+
+        Gdx.app.log("Regions", "🗂 " + all.size + " regions resolved in " + (System.nanoTime() - start) / 1000 + " us");
+    }
+}
@@ -0,0 +1,143 @@
+package ru.schneider_dev.tronfg.media;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ETC1;
+import com.badlogic.gdx.graphics.glutils.KTXTextureData;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Выбор между PNG и сжатой ETC1-версией картинки уровня.
+ * <p>
+ * Сжатые картинки собирает задача gradlew desktop:compressTextures: рядом с imageN.png
+ * кладется imageN.zktx двойной высоты - сверху RGB, снизу альфа в оттенках серого
+ * (у ETC1 нет альфа-канала). Такие текстуры рисуются шейдером {@link #getAlphaSplitShader()}.
+ */
+public class TextureFormats {
+
+    public static final String COMPRESSED_EXTENSION = ".zktx";
+
+    private static boolean etc1Supported;
+    private static ShaderProgram alphaSplitShader;
+
+    /**
+     * Запоминает, умеет ли GPU ETC1. Вызывается из потока рендера при старте:
+     * дальше {@link #resolve} можно звать из любого потока.
+     */
+    public static void init() {
+        etc1Supported = Gdx.graphics.supportsExtension("GL_OES_compressed_ETC1_RGB8_texture");
+        Gdx.app.log("TextureFormats", "🗜 ETC1 textures: " + (etc1Supported ? "yes" : "no, using PNG"));
+    }
+
+    /**
+     * @param pngPath путь к PNG-картинке
+     * @return путь к сжатой версии, если GPU ее поддерживает и она собрана, иначе pngPath
+     */
+    public static String resolve(String pngPath) {
+        if (!etc1Supported || !pngPath.endsWith(".png")) return pngPath;
+
+        String compressed = pngPath.substring(0, pngPath.length() - 4) + COMPRESSED_EXTENSION;
+        return Gdx.files.internal(compressed).exists() ? compressed : pngPath;
+    }
+
+    /**
+     * @return true, если в текстуре RGB и альфа разнесены по половинам
+     */
+    public static boolean isAlphaSplit(Texture texture) {
+        TextureData data = texture.getTextureData();
+        return data instanceof KTXTextureData && ((KTXTextureData) data).getGlInternalFormat() == ETC1.ETC1_RGB8_OES;
+    }
+
+    /**
+     * Регион с картинкой: вся текстура или ее верхняя (цветная) половина
+     */
+    public static TextureRegion createRegion(Texture texture) {
+        if (isAlphaSplit(texture)) {
+            return new TextureRegion(texture, 0, 0, texture.getWidth(), texture.getHeight() / 2);
+        }
+        return new TextureRegion(texture);
+    }
+
+    /**
+     * @return примерный объем текстуры в видеопамяти, байт
+     */
+    public static int getTextureBytes(Texture texture) {
+        TextureData data = texture.getTextureData();
+        int pixels = texture.getWidth() * texture.getHeight();
+
+        int size;
+        if (data instanceof KTXTextureData) {
+            // ETC1: 8 байт на блок 4x4
+            size = pixels / 2;
+        } else {
+            size = pixels * bytesPerPixel(data.getFormat());
+        }
+        // Мипмапы добавляют примерно треть
+        return data.useMipMaps() ? size * 4 / 3 : size;
+    }
+
+    private static int bytesPerPixel(Pixmap.Format format) {
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    /**
+     * Шейдер SpriteBatch для текстур с альфой в нижней половине
+     */
+    public static ShaderProgram getAlphaSplitShader() {
+        if (alphaSplitShader != null) return alphaSplitShader;
+
+        String vertex = "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+                + "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+                + "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+                + "uniform mat4 u_projTrans;\n"
+                + "varying vec4 v_color;\n"
+                + "varying vec2 v_texCoords;\n"
+                + "void main() {\n"
+                + "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+                + "    v_color.a = v_color.a * (255.0/254.0);\n"
+                + "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+                + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+                + "}\n";
+        String fragment = "#ifdef GL_ES\n"
+                + "precision mediump float;\n"
+                + "#endif\n"
+                + "varying vec4 v_color;\n"
+                + "varying vec2 v_texCoords;\n"
+                + "uniform sampler2D u_texture;\n"
+                + "void main() {\n"
+                + "    vec3 rgb = texture2D(u_texture, v_texCoords).rgb;\n"
+                + "    float alpha = texture2D(u_texture, v_texCoords + vec2(0.0, 0.5)).r;\n"
+                + "    gl_FragColor = v_color * vec4(rgb, alpha);\n"
+                + "}\n";
+
+        alphaSplitShader = new ShaderProgram(vertex, fragment);
+        if (!alphaSplitShader.isCompiled()) {
+            throw new GdxRuntimeException("Error compiling alpha split shader: " + alphaSplitShader.getLog());
+        }
+        return alphaSplitShader;
+    }
+
+    public static void dispose() {
+        if (alphaSplitShader != null) {
+            alphaSplitShader.dispose();
+            alphaSplitShader = null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.schneider_dev.tronfg.player;
+
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.boontaran.douglasPeucker.DouglasPeucker;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.levels.LevelSimulation;
+
+/**
+ * Корпус машины для Box2D: контур картинки, упрощенный, сдвинутый к центру
+ * и переведенный в координаты мира, уже разбитый на выпуклые куски.
+ * Для одного атласа он не меняется, поэтому Player считает его один раз на процесс.
+ */
+public class CarHull {
+
+    // Выпуклые куски корпуса в координатах мира относительно центра тела
+    public final Array<float[]> pieces;
+
+    private CarHull(Array<float[]> pieces) {
+        this.pieces = pieces;
+    }
+
+    /**
+     * @param outline контур корпуса в пикселях (результат PlayerBody.traceOutline)
+     */
+    public static CarHull fromOutline(float[] outline) {
+        float[] vertices = outline.clone();
+        Vector2 centroid = LevelSimulation.calculateCentroid(vertices);
+
+        int i = 0;
+        while (i < vertices.length) {
+            vertices[i] -= centroid.x;
+            vertices[i + 1] -= centroid.y;
+            i += 2;
+        }
+
+        vertices = DouglasPeucker.simplify(vertices, 4);
+        LevelSimulation.scaleToWorld(vertices);
+
+        Polygon polygon = new Polygon(vertices);
+        Array<float[]> pieces = new Array<float[]>();
+        for (Polygon piece : Setting.MERGE_CONVEX_PIECES ? LevelSimulation.getConvexPieces(polygon) : LevelSimulation.getTriangles(polygon)) {
+            pieces.add(piece.getTransformedVertices());
+        }
+        return new CarHull(pieces);
+    }
+}
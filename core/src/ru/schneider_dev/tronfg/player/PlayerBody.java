@@ -0,0 +1,301 @@
+package ru.schneider_dev.tronfg.player;
+
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.physics.box2d.joints.RevoluteJointDef;
+import com.badlogic.gdx.utils.Array;
+import com.boontaran.marchingSquare.MarchingSquare;
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.levels.LevelSimulation;
+
+import java.util.ArrayList;
+
+/**
+ * Физика машины: корпус, два колеса и шарниры между ними.
+ * Не зависит от scene2d и атласа, поэтому работает и в headless-режиме.
+ */
+public class PlayerBody implements IBody {
+
+    public Body car, frontWheel, rearWheel;
+    private Joint frontWheelJoint, rearWheelJoint;
+    private World world;
+    private float x, y;
+    private CarHull hull;
+    private boolean hasDestroyed = false;
+    private boolean destroyOnNextUpdate = false;
+    private boolean isTouchGround = true;
+    private float jumpWait = 0;
+
+    /**
+     * @param x       позиция машины в пикселях уровня
+     * @param y       позиция машины в пикселях уровня
+     * @param hull    корпус машины (см. {@link CarHull})
+     */
+    public PlayerBody(float x, float y, CarHull hull) {
+        this.x = x;
+        this.y = y;
+        this.hull = hull;
+    }
+
+    public void touchGround() {
+        isTouchGround = true;
+    }
+
+    public boolean isTouchedGround() {
+        if (jumpWait > 0) return false;
+        return isTouchGround;
+    }
+
+    @Override
+    public Body createBody(World world) {
+        this.world = world;
+
+        car = createBodyFromPieces(world, hull.pieces);
+        car.setTransform(x / LevelSimulation.WORLD_SCALE, y / LevelSimulation.WORLD_SCALE, 0);
+        car.setUserData(new UserData(null, UserData.CAR));
+
+        frontWheel = createWheel(world, Setting.WHEEL_RADIUS / LevelSimulation.WORLD_SCALE);
+        frontWheel.setTransform(car.getPosition().x + Setting.FRONT_WHEEL_X / LevelSimulation.WORLD_SCALE, car.getPosition().y + Setting.WHEEL_Y / LevelSimulation.WORLD_SCALE, 0);
+        frontWheel.setUserData(new UserData(null, UserData.FRONT_WHEEL));
+
+        rearWheel = createWheel(world, Setting.WHEEL_RADIUS / LevelSimulation.WORLD_SCALE);
+        rearWheel.setTransform(car.getPosition().x + Setting.REAR_WHEEL_X / LevelSimulation.WORLD_SCALE, car.getPosition().y + Setting.WHEEL_Y / LevelSimulation.WORLD_SCALE, 0);
+        rearWheel.setUserData(new UserData(null, UserData.REAR_WHEEL));
+
+        createJoints();
+
+        return car;
+    }
+
+    /**
+     * Шарниры колес с осью в текущем центре колеса
+     */
+    private void createJoints() {
+        RevoluteJointDef rDef = new RevoluteJointDef();
+        rDef.initialize(car, frontWheel, new Vector2(frontWheel.getPosition()));
+        frontWheelJoint = world.createJoint(rDef);
+
+        rDef = new RevoluteJointDef();
+        rDef.initialize(car, rearWheel, new Vector2(rearWheel.getPosition()));
+        rearWheelJoint = world.createJoint(rDef);
+    }
+
+    private Body createWheel(World world, float rad) {
+
+        BodyDef def = new BodyDef();
+        def.type = BodyDef.BodyType.DynamicBody;
+        def.linearDamping = 0; // линейное затухание для уменьшения скорости
+        def.angularDamping = Setting.WHEEL_ANGULAR_DAMPING; // угловое затухание
+
+        Body body = world.createBody(def);
+
+        FixtureDef fDef = new FixtureDef();
+        CircleShape shape = new CircleShape();
+        shape.setRadius(rad);
+
+        fDef.shape = shape;// радиус
+        fDef.restitution = Setting.WHEEL_RESTITUTION;// эластичность
+        fDef.friction = Setting.WHEEL_FRICTION;// коэф трения
+        fDef.density = Setting.WHEEL_DENSITY;// плотность
+        fDef.filter.categoryBits = UserData.CATEGORY_CAR;
+        fDef.filter.maskBits = UserData.MASK_CAR;
+
+        body.createFixture(fDef);
+        shape.dispose();
+
+
+        return body;
+    }
+
+    private Body createBodyFromPieces(World world, Array<float[]> pieces) {
+        BodyDef def = new BodyDef();
+        def.type = BodyDef.BodyType.DynamicBody;
+        def.linearDamping = 0;
+        Body body = world.createBody(def);
+
+        for (float[] piece : pieces) {
+            FixtureDef fDef = new FixtureDef();
+            PolygonShape shape = new PolygonShape();
+            shape.set(piece);
+
+            fDef.shape = shape;
+            fDef.restitution = Setting.CAR_RESTITUTION;
+            fDef.density = Setting.CAR_DENSITY;
+            fDef.filter.categoryBits = UserData.CATEGORY_CAR;
+            fDef.filter.maskBits = UserData.MASK_CAR;
+
+            body.createFixture(fDef);
+            shape.dispose();
+        }
+        return body;
+    }
+
+    /**
+     * Строит контур непрозрачной области картинки
+     * @param source картинка (например, страница атласа)
+     * @return вершины контура в пикселях
+     */
+    public static float[] traceOutline(Pixmap source, int x, int y, int w, int h) {
+        Pixmap pixmap = new Pixmap(w, h, Pixmap.Format.RGBA8888);
+        pixmap.drawPixmap(source, 0, 0, x, y, w, h);
+
+        int pixel;
+
+        int[][] map;
+        map = new int[w][h];
+        for (x = 0; x < w; x++) {
+            for (y = 0; y < h; y++) {
+                pixel = pixmap.getPixel(x, y);
+                if ((pixel & 0x000000ff) == 0) {
+                    map[x][y] = 0;
+                } else {
+                    map[x][y] = 1;
+                }
+            }
+        }
+
+        pixmap.dispose();
+
+        MarchingSquare ms = new MarchingSquare(map);
+        ms.invertY();
+        ArrayList<float[]> traces = ms.traceMap();
+
+        float[] polyVertices = traces.get(0);
+        return polyVertices;
+    }
+
+    public void onKey(boolean moveFrontKey, boolean moveBackKey) {
+        float torque = Setting.WHEEL_TORQUE;
+        float maxAV = 25;
+
+        if (moveFrontKey) {
+            if (-rearWheel.getAngularVelocity() < maxAV) {
+                rearWheel.applyTorque(-torque, true);
+            }
+            if (-frontWheel.getAngularVelocity() < maxAV) {
+                frontWheel.applyTorque(-torque, true);
+            }
+        }
+        if (moveBackKey) {
+            if (rearWheel.getAngularVelocity() < maxAV) {
+                rearWheel.applyTorque(torque, true);
+            }
+            if (frontWheel.getAngularVelocity() < maxAV) {
+                frontWheel.applyTorque(torque, true);
+            }
+        }
+    }
+
+    public void jumpBack(float value) {
+        // Наклон назад (поворот по часовой стрелке)
+        float torque = 200f; // Сила крутящего момента
+        car.applyTorque(torque * value, true);
+    }
+
+    public void jumpForward(float value) {
+        // Наклон вперед (поворот против часовой стрелки)
+        float torque = -200f; // Сила крутящего момента (отрицательная)
+        car.applyTorque(torque * value, true);
+    }
+
+    /**
+     * Отрабатывает отложенное разрушение. Вызывается вне world.step,
+     * потому что Box2D не дает удалять шарниры во время шага.
+     */
+    public void update() {
+        if (destroyOnNextUpdate) {
+            destroyOnNextUpdate = false;
+            world.destroyJoint(frontWheelJoint);
+            world.destroyJoint(rearWheelJoint);
+            frontWheelJoint = null;
+            rearWheelJoint = null;
+        }
+    }
+
+    public void saveState(PlayerState state) {
+        saveBody(car, state.values, 0);
+        saveBody(frontWheel, state.values, PlayerState.STRIDE);
+        saveBody(rearWheel, state.values, PlayerState.STRIDE * 2);
+    }
+
+    /**
+     * Возвращает машину в сохраненное состояние и чинит ее, если она была разрушена.
+     * Вызывается вне world.step.
+     */
+    public void reset(PlayerState state) {
+        applyBody(car, state.values, 0);
+        applyBody(frontWheel, state.values, PlayerState.STRIDE);
+        applyBody(rearWheel, state.values, PlayerState.STRIDE * 2);
+
+        // Шарниры пересоздаются уже на месте, чтобы оси встали в центры колес
+        if (frontWheelJoint == null) {
+            createJoints();
+        }
+
+        hasDestroyed = false;
+        destroyOnNextUpdate = false;
+        isTouchGround = true;
+        jumpWait = 0;
+    }
+
+    private static void saveBody(Body body, float[] values, int offset) {
+        values[offset] = body.getPosition().x;
+        values[offset + 1] = body.getPosition().y;
+        values[offset + 2] = body.getAngle();
+        values[offset + 3] = body.getLinearVelocity().x;
+        values[offset + 4] = body.getLinearVelocity().y;
+        values[offset + 5] = body.getAngularVelocity();
+    }
+
+    private static void applyBody(Body body, float[] values, int offset) {
+        body.setTransform(values[offset], values[offset + 1], values[offset + 2]);
+        body.setLinearVelocity(values[offset + 3], values[offset + 4]);
+        body.setAngularVelocity(values[offset + 5]);
+        body.setAwake(true);
+    }
+
+    public void destroy() {
+        if (hasDestroyed) return;
+        hasDestroyed = true;
+
+        destroyOnNextUpdate = true;
+    }
+
+    /**
+     * @return наибольшее расхождение точек шарнира колеса на корпусе и на колесе, в единицах мира;
+     * мера того, насколько решатель не успел свести шарниры (0 - без шарниров)
+     */
+    public float getJointError() {
+        if (frontWheelJoint == null) return 0;
+        return Math.max(frontWheelJoint.getAnchorA().dst(frontWheelJoint.getAnchorB()),
+                rearWheelJoint.getAnchorA().dst(rearWheelJoint.getAnchorB()));
+    }
+
+    public boolean isHasDestroyed() {
+        return hasDestroyed;
+    }
+
+    /**
+     * @return угол корпуса в градусах
+     */
+    public float getRotation() {
+        return car.getAngle() * MathUtils.radiansToDegrees;
+    }
+
+    /**
+     * @return координата X корпуса в пикселях уровня
+     */
+    public float getX() {
+        return car.getPosition().x * LevelSimulation.WORLD_SCALE;
+    }
+
+    /**
+     * @return координата Y корпуса в пикселях уровня
+     */
+    public float getY() {
+        return car.getPosition().y * LevelSimulation.WORLD_SCALE;
+    }
+}
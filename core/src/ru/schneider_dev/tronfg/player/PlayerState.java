@@ -0,0 +1,15 @@
+package ru.schneider_dev.tronfg.player;
+
+
+/**
+ * Положение и скорости корпуса и колес машины в координатах мира.
+ * Снимается, когда машина осела на землю, и возвращается при перезапуске уровня.
+ */
+public class PlayerState {
+
+    // На каждое тело: x, y, угол, скорость по x, по y, угловая скорость
+    public static final int STRIDE = 6;
+
+    // Корпус, переднее колесо, заднее колесо
+    public final float[] values = new float[STRIDE * 3];
+}
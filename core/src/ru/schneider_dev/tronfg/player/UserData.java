@@ -4,14 +4,55 @@ package ru.schneider_dev.tronfg.player;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 
 public class UserData {
+
+    // Роль тела в мире, по ней LevelSimulation разбирает контакты
+    public static final int NONE = 0;
+    public static final int LAND = 1;
+    public static final int FINISH = 2;
+    public static final int CAR = 3;
+    public static final int FRONT_WHEEL = 4;
+    public static final int REAR_WHEEL = 5;
+    public static final int KIND_COUNT = 6;
+
+    // Категории фикстур Box2D: земля и финиш сталкиваются только с машиной,
+    // так что до слушателя контактов доходят только пары с машиной.
+    // Части машины сталкиваются и между собой, как до фильтров: переднее колесо
+    // с задним (на крутом изломе). Корпус с колесами не сталкивается из-за шарниров (collideConnected = false)
+    public static final short CATEGORY_LAND = 0x0001;
+    public static final short CATEGORY_CAR = 0x0002;
+    public static final short CATEGORY_FINISH = 0x0004;
+    public static final short MASK_LAND = CATEGORY_CAR;
+    public static final short MASK_FINISH = CATEGORY_CAR;
+    public static final short MASK_CAR = CATEGORY_LAND | CATEGORY_FINISH | CATEGORY_CAR;
+
     public Actor actor;
-    public String name = "";
+    public int kind = NONE;
 
-    public UserData(Actor actor, String name) {
+    // Состояние тела на предыдущем шаге физики (для интерполяции отрисовки)
+    public float prevX, prevY, prevAngle;
+
+    public UserData(Actor actor, int kind) {
         this.actor = actor;
-        this.name = name;
+        this.kind = kind;
     }
 
     public UserData() {
     }
+
+    public static String kindName(int kind) {
+        switch (kind) {
+            case LAND:
+                return "land";
+            case FINISH:
+                return "finish";
+            case CAR:
+                return "car";
+            case FRONT_WHEEL:
+                return "frontWheel";
+            case REAR_WHEEL:
+                return "rearWheel";
+            default:
+                return "unknown";
+        }
+    }
 }
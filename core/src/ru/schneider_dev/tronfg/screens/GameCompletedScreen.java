@@ -8,6 +8,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.boontaran.games.StageGame;
 import ru.schneider_dev.tronfg.TRONgame;
 import ru.schneider_dev.tronfg.controls.TextButton;
+import ru.schneider_dev.tronfg.media.Regions;
 
 import static ru.schneider_dev.tronfg.controls.TextButton.*;
 
@@ -22,7 +23,7 @@ public class GameCompletedScreen extends StageGame {
 
     public GameCompletedScreen() {
         // Создаем фон
-        Image bg = new Image(TRONgame.atlas.findRegion("intro_bg"));
+        Image bg = new Image(Regions.INTRO_BG.get());
         addBackground(bg, true, false);
 
         // Создаем заголовок "USER WIN" неоновым желтым цветом
@@ -14,6 +14,7 @@ import com.boontaran.games.StageGame;
 import ru.schneider_dev.tronfg.TRONgame;
 import ru.schneider_dev.tronfg.controls.MenuMusicTextButton;
 import ru.schneider_dev.tronfg.controls.TextButton;
+import ru.schneider_dev.tronfg.media.Regions;
 
 import static ru.schneider_dev.tronfg.controls.TextButton.NEON_YELLOW;
 
@@ -56,7 +57,7 @@ public class IntroScreen extends StageGame {
     }
 
     private void setupBackground() {
-        Image bg = new Image(TRONgame.atlas.findRegion("intro_bg"));
+        Image bg = new Image(Regions.INTRO_BG.get());
         addBackground(bg, true, false);
     }
 
@@ -151,6 +151,9 @@ public class LevelCompletedScreen extends Group {
 
     public void start() {
         title.setY(h);
+        exit.setColor(1, 1, 1, 0);
+        restart.setColor(1, 1, 1, 0);
+        next.setColor(1, 1, 1, 0);
         // Поднимаем заголовок ближе к верхней границе
         title.addAction(Actions.moveTo(title.getX(), h - title.getPrefHeight() - 60, 0.5f, Interpolation.swingOut));
 
@@ -75,6 +75,11 @@ public class LevelFailedScreen extends Group {
     }
 
     public void start() {
+        // Экран показывается повторно после быстрого перезапуска уровня
+        title.setY(h);
+        retry.setColor(1, 1, 1, 0);
+        quit.setColor(1, 0, 0, 0);
+
         title.addAction(Actions.moveTo(title.getX(), h - title.getPrefHeight() - 100, 0.5f, Interpolation.swingOut));
         retry.addAction(Actions.alpha(1, 0.3f));
         quit.addAction(Actions.alpha(1, 0.3f));
@@ -19,6 +19,7 @@ import ru.schneider_dev.tronfg.controls.TextButton;
 import ru.schneider_dev.tronfg.media.LevelIcon;
 import ru.schneider_dev.tronfg.controls.PngIcon;
 import ru.schneider_dev.tronfg.controls.MenuMusicTextButton;
+import ru.schneider_dev.tronfg.media.Regions;
 
 
 public class LevelList  extends StageGame {
@@ -38,7 +39,7 @@ public class LevelList  extends StageGame {
     private MenuMusicTextButton soundIcon;
 
     public LevelList() {
-        Image bg = new Image(TRONgame.atlas.findRegion("intro_bg"));
+        Image bg = new Image(Regions.INTRO_BG.get());
         addBackground(bg, true, false);
 
         // Запускаем проигрывание музыки меню
@@ -18,6 +18,7 @@ import ru.schneider_dev.tronfg.controls.TextButton;
 import ru.schneider_dev.tronfg.utils.Data;
 import ru.schneider_dev.tronfg.services.LeaderboardService;
 import ru.schneider_dev.tronfg.services.LeaderboardServiceFactory;
+import ru.schneider_dev.tronfg.media.Regions;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -179,7 +180,7 @@ public class ScoreScreen extends StageGame {
 
 	private void setupBackground() {
 		Gdx.app.log("ScoreScreen", "Setting up background");
-		Image bg = new Image(TRONgame.atlas.findRegion("intro_bg"));
+		Image bg = new Image(Regions.INTRO_BG.get());
 		addBackground(bg, true, false);
 		Gdx.app.log("ScoreScreen", "Background added");
 	}
@@ -1,14 +1,59 @@
 package ru.schneider_dev.tronfg.utils;
 
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectMap;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Упаковка атласов: общий images/pack.atlas из tools/raw_images и маленькие
+ * атласы-наложения images_ru, images_en из tools/raw_images_ru, tools/raw_images_en
+ * для картинок с текстом (см. media.LocalizedAtlas). Если для языка своих картинок нет,
+ * наложение не собирается, а старое удаляется.
+ * <p>
+ * Для каждого атласа считается хэш входных картинок, настроек упаковщика и имени атласа;
+ * он сохраняется в pack.hash рядом с атласом, и если не изменился - атлас не пересобирается.
+ * Варианты с одинаковым хэшем упаковываются один раз и копируются, разные - параллельно.
+ * Запуск: gradlew desktop:packTextures (рабочая папка - корень проекта).
+ */
 public class Packer {
 
+    private static final String INPUT_DIR = "tools/raw_images";
+    private static final String OUTPUT_DIR = "android/assets/images";
+    private static final String[] LOCALES = {"ru", "en"};
+    private static final String PACK_NAME = "pack";
+    private static final String HASH_FILE = PACK_NAME + ".hash";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Атлас: откуда брать картинки и куда класть результат
+     */
+    static class Variant {
+        final String inputDir;
+        final String outputDir;
+        String hash;
+        long time;
+
+        Variant(String inputDir, String outputDir) {
+            this.inputDir = inputDir;
+            this.outputDir = outputDir;
+        }
+    }
+
     public static void main(String[] args) {
         try {
-            System.out.println("Начинаем упаковку текстур...");
-            
+            boolean force = args.length > 0 && args[0].equals("force");
+
             TexturePacker.Settings set = new TexturePacker.Settings();
             set.filterMin = Texture.TextureFilter.MipMapLinearNearest;
             set.filterMag = Texture.TextureFilter.Linear;
@@ -17,17 +62,220 @@ public class Packer {
             set.maxHeight = 2048;
             set.maxWidth = 2048;
 
-            System.out.println("Упаковываем текстуры для русского языка...");
-            TexturePacker.process(set, "tools/raw_images", "android/assets/images_ru", "pack");
-            
-            System.out.println("Упаковываем текстуры для английского языка...");
-            TexturePacker.process(set, "tools/raw_images", "android/assets/images_en", "pack");
-            
-            System.out.println("Упаковка текстур завершена успешно!");
-            
+            Array<Variant> variants = new Array<Variant>();
+            variants.add(new Variant(INPUT_DIR, OUTPUT_DIR));
+            for (String locale : LOCALES) {
+                Variant overlay = new Variant(INPUT_DIR + "_" + locale, OUTPUT_DIR + "_" + locale);
+                if (hasImages(overlay.inputDir)) {
+                    variants.add(overlay);
+                } else {
+                    removeOutput(overlay);
+                }
+            }
+
+            pack(set, variants, force);
+
         } catch (Exception e) {
             System.err.println("Ошибка при упаковке текстур: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    public static void pack(TexturePacker.Settings settings, Array<Variant> variants, boolean force) {
+        String settingsJson = new Json().toJson(settings);
+
+        // Одинаковые входы дают одинаковый атлас: пакуем один раз на группу
+        ObjectMap<String, Array<Variant>> groups = new ObjectMap<String, Array<Variant>>();
+        for (Variant variant : variants) {
+            variant.hash = hash(variant.inputDir, settingsJson);
+
+            if (!force && isUpToDate(variant)) {
+                System.out.println(variant.outputDir + ": без изменений");
+                continue;
+            }
+
+            Array<Variant> group = groups.get(variant.hash);
+            if (group == null) {
+                group = new Array<Variant>();
+                groups.put(variant.hash, group);
+            }
+            group.add(variant);
+        }
+
+        if (groups.size == 0) return;
+
+        final Array<PackTask> tasks = new Array<PackTask>();
+        for (Array<Variant> group : groups.values()) {
+            tasks.add(new PackTask(settings, group));
+        }
+
+        long start = System.currentTimeMillis();
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(Arrays.asList(tasks.toArray(PackTask.class)));
+            }
+        });
+        System.out.println("Упаковка завершена за " + (System.currentTimeMillis() - start) + " мс");
+
+        for (Variant variant : variants) {
+            if (variant.time > 0) report(variant);
+        }
+    }
+
+    /**
+     * Пакует первый атлас группы и копирует результат в остальные
+     */
+    static class PackTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient TexturePacker.Settings settings;
+        private final transient Array<Variant> group;
+
+        PackTask(TexturePacker.Settings settings, Array<Variant> group) {
+            this.settings = settings;
+            this.group = group;
+        }
+
+        @Override
+        protected void compute() {
+            Variant first = group.first();
+            long start = System.currentTimeMillis();
+
+            TexturePacker.process(settings, first.inputDir, first.outputDir, PACK_NAME);
+            new FileHandle(new File(first.outputDir, HASH_FILE)).writeString(first.hash, false);
+            first.time = System.currentTimeMillis() - start;
+
+            for (int i = 1; i < group.size; i++) {
+                Variant copy = group.get(i);
+                start = System.currentTimeMillis();
+
+                FileHandle target = new FileHandle(copy.outputDir);
+                target.mkdirs();
+                for (FileHandle file : outputFiles(first)) {
+                    file.copyTo(target);
+                }
+                copy.time = Math.max(1, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Хэш картинок (по путям внутри папки в алфавитном порядке), настроек упаковщика и имени атласа.
+     * Подпапки входят в хэш, как и в атлас: TexturePacker обходит их сам.
+     */
+    static String hash(String inputDir, String settingsJson) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, PACK_NAME.getBytes());
+        hash = mix(hash, settingsJson.getBytes());
+
+        FileHandle root = new FileHandle(inputDir);
+        Array<FileHandle> files = new Array<FileHandle>();
+        listFiles(root, files);
+        files.sort(new java.util.Comparator<FileHandle>() {
+            @Override
+            public int compare(FileHandle a, FileHandle b) {
+                return a.path().compareTo(b.path());
+            }
+        });
+
+        int prefix = root.path().length() + 1;
+        for (FileHandle file : files) {
+            hash = mix(hash, file.path().substring(prefix).getBytes());
+            hash = mix(hash, file.readBytes());
+        }
+        return Long.toHexString(hash);
+    }
+
+    private static void listFiles(FileHandle dir, Array<FileHandle> files) {
+        for (FileHandle file : dir.list()) {
+            if (file.isDirectory()) {
+                listFiles(file, files);
+            } else {
+                files.add(file);
+            }
+        }
+    }
+
+    private static boolean hasImages(String inputDir) {
+        FileHandle dir = new FileHandle(inputDir);
+        if (!dir.isDirectory()) return false;
+
+        Array<FileHandle> files = new Array<FileHandle>();
+        listFiles(dir, files);
+        for (FileHandle file : files) {
+            if (file.extension().equalsIgnoreCase("png")) return true;
+        }
+        return false;
+    }
+
+    private static void removeOutput(Variant variant) {
+        FileHandle atlasFile = new FileHandle(new File(variant.outputDir, PACK_NAME + ".atlas"));
+        if (!atlasFile.exists()) return;
+
+        for (FileHandle file : outputFiles(variant)) {
+            file.delete();
+        }
+        if (atlasFile.parent().list().length == 0) atlasFile.parent().delete();
+        System.out.println(variant.outputDir + ": своих картинок нет, наложение удалено");
+    }
+
+    private static long mix(long hash, byte[] bytes) {
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean isUpToDate(Variant variant) {
+        FileHandle hashFile = new FileHandle(new File(variant.outputDir, HASH_FILE));
+        if (!hashFile.exists() || !hashFile.readString().equals(variant.hash)) return false;
+
+        FileHandle atlasFile = new FileHandle(new File(variant.outputDir, PACK_NAME + ".atlas"));
+        if (!atlasFile.exists()) return false;
+
+        for (TextureAtlasData.Page page : readAtlas(variant).getPages()) {
+            if (!page.textureFile.exists()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Атлас, его страницы и pack.hash
+     */
+    private static Array<FileHandle> outputFiles(Variant variant) {
+        Array<FileHandle> files = new Array<FileHandle>();
+        files.add(new FileHandle(new File(variant.outputDir, PACK_NAME + ".atlas")));
+        files.add(new FileHandle(new File(variant.outputDir, HASH_FILE)));
+        for (TextureAtlasData.Page page : readAtlas(variant).getPages()) {
+            files.add(page.textureFile);
+        }
+        return files;
+    }
+
+    private static TextureAtlasData readAtlas(Variant variant) {
+        FileHandle atlasFile = new FileHandle(new File(variant.outputDir, PACK_NAME + ".atlas"));
+        return new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+    }
+
+    /**
+     * Время и заполненность каждой страницы атласа
+     */
+    private static void report(Variant variant) {
+        TextureAtlasData atlas = readAtlas(variant);
+
+        StringBuilder line = new StringBuilder();
+        line.append(variant.outputDir).append(": ").append(variant.time).append(" мс");
+
+        for (TextureAtlasData.Page page : atlas.getPages()) {
+            long used = 0;
+            for (TextureAtlasData.Region region : atlas.getRegions()) {
+                if (region.page == page) used += (long) region.width * region.height;
+            }
+            line.append(", ").append(page.textureFile.name()).append(' ')
+                    .append((int) page.width).append('x').append((int) page.height)
+                    .append(" заполнена на ").append(used * 100 / (long) (page.width * page.height)).append('%');
+        }
+        System.out.println(line);
+    }
 }
@@ -0,0 +1,117 @@
+package ru.schneider_dev.tronfg.controls;
+
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.Align;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.schneider_dev.tronfg.HeadlessGdx;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Текст, который обновляется и рисуется каждый кадр (HudLabel таймеров, CachedText),
+ * после прогрева не выделяет память. Аллокации считает ThreadMXBean текущего потока.
+ */
+public class HudTextAllocationTest {
+
+    // 10 минут при 60 FPS
+    private static final int FRAMES = 36000;
+    // Кадров отрисовки без flush: буфер SpriteBatch на 8191 спрайт
+    private static final int DRAW_FRAMES = 200;
+    // Запас на служебные аллокации самой JVM; старый путь String.format + pack - около 1.5 КБ на кадр
+    private static final long TOLERANCE_BYTES = 1024;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private BitmapFont font;
+    private HudLabel time;
+    private HudLabel upsideDown;
+    private CachedText cached;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.init();
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    private void createLabels() {
+        font = new BitmapFont();
+        Label.LabelStyle style = new Label.LabelStyle(font, Color.WHITE);
+        // Как в Level: таймер в правом верхнем углу, отсчет переворота по центру
+        time = new HudLabel("00:00", style);
+        time.setAnchor(780, 440, Align.bottomRight);
+        upsideDown = new HudLabel("", style);
+        upsideDown.setAnchor(400, 430, Align.bottom);
+        cached = new CachedText(font);
+    }
+
+    /**
+     * Кадры уровня: время растет, текст таймеров меняется раз в секунду и раз в 0.1 с
+     */
+    private static float update(HudLabel time, HudLabel upsideDown, float t, int frames) {
+        for (int i = 0; i < frames; i++) {
+            t += 1 / 60f;
+            time.setTime(t);
+            upsideDown.setTenths("UPSIDE DOWN! ", 3 - t % 3, "s");
+        }
+        return t;
+    }
+
+    @Test
+    public void hudLabelsUpdateWithoutAllocations() {
+        createLabels();
+        float t = update(time, upsideDown, 0, FRAMES);
+
+        long before = allocated();
+        update(time, upsideDown, t, FRAMES);
+        long bytes = allocated() - before;
+
+        assertTrue(bytes + " bytes for " + FRAMES + " frames", bytes < TOLERANCE_BYTES);
+        assertEquals("20:00", time.getText().toString());
+        font.dispose();
+    }
+
+    @Test
+    public void textDrawsWithoutAllocations() {
+        createLabels();
+        SpriteBatch batch = new SpriteBatch(8191);
+
+        float t = 0;
+        long bytes = 0;
+        // Первый проход - прогрев, считается второй
+        for (int pass = 0; pass < 2; pass++) {
+            batch.begin();
+            long before = allocated();
+            for (int i = 0; i < DRAW_FRAMES; i++) {
+                t = update(time, upsideDown, t, 1);
+                time.draw(batch, 1);
+                upsideDown.draw(batch, 1);
+                cached.setText("PLAY", Color.WHITE);
+                cached.draw(batch, 100, 100, 1);
+            }
+            bytes = allocated() - before;
+            batch.end();
+        }
+
+        assertTrue(bytes + " bytes for " + DRAW_FRAMES + " frames", bytes < TOLERANCE_BYTES);
+        batch.dispose();
+        font.dispose();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.Array;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConvexPartitionTest {
+
+    private static final float AREA_EPSILON = 1e-3f;
+
+    @Test
+    public void lShape() {
+        check(new float[]{0, 0, 4, 0, 4, 1, 1, 1, 1, 4, 0, 4});
+    }
+
+    @Test
+    public void convexPolygonWithManyVerticesIsSplit() {
+        float[] vertices = new float[20 * 2];
+        for (int i = 0; i < 20; i++) {
+            vertices[i * 2] = MathUtils.cos(i * MathUtils.PI2 / 20) * 10;
+            vertices[i * 2 + 1] = MathUtils.sin(i * MathUtils.PI2 / 20) * 10;
+        }
+        assertTrue(check(vertices).size > 1);
+    }
+
+    @Test
+    public void star() {
+        float[] vertices = new float[10 * 2];
+        for (int i = 0; i < 10; i++) {
+            float radius = i % 2 == 0 ? 10 : 4;
+            vertices[i * 2] = MathUtils.cos(i * MathUtils.PI2 / 10) * radius;
+            vertices[i * 2 + 1] = MathUtils.sin(i * MathUtils.PI2 / 10) * radius;
+        }
+        check(vertices);
+    }
+
+    /**
+     * Полоса земли с холмами, как слой land в TMX: ломаная сверху, ровное дно
+     */
+    @Test
+    public void terrainStrip() {
+        int hills = 40;
+        float[] strip = new float[(hills + 3) * 2];
+        for (int i = 0; i <= hills; i++) {
+            strip[i * 2] = i * 2;
+            strip[i * 2 + 1] = 5 + MathUtils.sin(i * 0.7f) * 3 + (i % 3) * 0.5f;
+        }
+        // Дно идет от последней точки к первой
+        strip[(hills + 1) * 2] = hills * 2;
+        strip[(hills + 1) * 2 + 1] = 0;
+        strip[(hills + 2) * 2] = 0;
+        strip[(hills + 2) * 2 + 1] = 0;
+        check(strip);
+    }
+
+    @Test
+    public void clockwiseInput() {
+        check(new float[]{0, 4, 1, 4, 1, 1, 4, 1, 4, 0, 0, 0});
+    }
+
+    /**
+     * Каждый кусок выпуклый и не больше MAX_VERTICES, а площадь кусков равна площади полигона
+     */
+    private static Array<Polygon> check(float[] vertices) {
+        Array<Polygon> pieces = ConvexPartition.partition(vertices);
+        assertTrue(pieces.size > 0);
+
+        float total = 0;
+        for (Polygon piece : pieces) {
+            float[] points = piece.getTransformedVertices();
+            int count = points.length / 2;
+            assertTrue("vertices: " + count, count >= 3 && count <= ConvexPartition.MAX_VERTICES);
+            assertTrue("not convex", isConvex(points));
+            total += Math.abs(piece.area());
+        }
+
+        float expected = Math.abs(new Polygon(vertices).area());
+        assertEquals(expected, total, expected * AREA_EPSILON);
+        return pieces;
+    }
+
+    private static boolean isConvex(float[] points) {
+        int count = points.length / 2;
+        int sign = 0;
+        for (int i = 0; i < count; i++) {
+            int j = (i + 1) % count;
+            int k = (i + 2) % count;
+            float cross = (points[j * 2] - points[i * 2]) * (points[k * 2 + 1] - points[j * 2 + 1])
+                    - (points[j * 2 + 1] - points[i * 2 + 1]) * (points[k * 2] - points[j * 2]);
+            if (Math.abs(cross) < 1e-6f) continue;
+            int s = cross > 0 ? 1 : -1;
+            if (sign == 0) sign = s;
+            else if (s != sign) return false;
+        }
+        return true;
+    }
+}
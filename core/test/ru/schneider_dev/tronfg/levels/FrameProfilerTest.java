@@ -0,0 +1,77 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.utils.StringBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * min, среднее и p99 FrameProfiler на известных замерах, в том числе после того,
+ * как кольцевой буфер переполнился и старые кадры вытеснены.
+ */
+public class FrameProfilerTest {
+
+    /**
+     * Строка отчета части кадра, например "world.step  min 1  avg 2  p99 3 us"
+     */
+    private static String line(FrameProfiler profiler, String name) {
+        StringBuilder text = new StringBuilder();
+        profiler.appendReport(text);
+        for (String line : text.toString().split("\n")) {
+            if (line.startsWith(name + " ")) return line;
+        }
+        throw new AssertionError("no line for " + name + " in:\n" + text);
+    }
+
+    private static String expected(String name, int min, int avg, int p99) {
+        return name + "  min " + min + "  avg " + avg + "  p99 " + p99 + " us";
+    }
+
+    @Test
+    public void partialBuffer() {
+        FrameProfiler profiler = new FrameProfiler();
+        // 100 кадров: 1..100 мкс, в кадре два world.step по половине
+        for (int i = 1; i <= 100; i++) {
+            profiler.add(FrameProfiler.STEP, i * 500L);
+            profiler.add(FrameProfiler.STEP, i * 500L);
+            profiler.endFrame();
+        }
+        // среднее 50.5 мкс, p99 - sorted[99 * 99 / 100] = sorted[98]
+        assertEquals(expected("world.step", 1, 50, 99), line(profiler, "world.step"));
+    }
+
+    @Test
+    public void ringBufferKeepsLastFrames() {
+        FrameProfiler profiler = new FrameProfiler();
+        int extra = 50;
+        // Сначала огромные замеры, которые должны быть вытеснены, потом FRAMES кадров по 1..FRAMES мкс
+        for (int i = 0; i < extra; i++) {
+            profiler.add(FrameProfiler.DRAW, 1000000000L);
+            profiler.endFrame();
+        }
+        for (int i = 1; i <= FrameProfiler.FRAMES; i++) {
+            profiler.add(FrameProfiler.DRAW, i * 1000L);
+            profiler.endFrame();
+        }
+
+        int n = FrameProfiler.FRAMES;
+        int p99 = (n - 1) * 99 / 100 + 1;
+        assertEquals(expected("draw", 1, (n + 1) / 2, p99), line(profiler, "draw"));
+        // Части без замеров в этих кадрах - нули
+        assertEquals(expected("update", 0, 0, 0), line(profiler, "update"));
+    }
+
+    @Test
+    public void p99IgnoresSingleSpike() {
+        FrameProfiler profiler = new FrameProfiler();
+        for (int i = 0; i < FrameProfiler.FRAMES; i++) {
+            profiler.add(FrameProfiler.FRAME, i == 17 ? 100000000L : 16000000L);
+            profiler.endFrame();
+        }
+        String line = line(profiler, "frame");
+        assertTrue(line, line.endsWith("p99 16000 us"));
+        assertTrue(line, line.startsWith("frame  min 16000  avg 16350 "));
+    }
+}
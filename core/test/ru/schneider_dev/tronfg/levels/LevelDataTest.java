@@ -0,0 +1,100 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Rectangle;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.schneider_dev.tronfg.HeadlessGdx;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class LevelDataTest {
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.init();
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        byte[] bytes = write(sample());
+        LevelData data = LevelData.read(file(bytes));
+
+        assertNotNull(data);
+        assertEquals(40, data.mapWidth);
+        assertEquals(1, data.polygons.size);
+        assertArrayEquals(new float[]{0, 0, 1, 0, 1, 1}, data.polygons.get(0), 0);
+        assertEquals(1, data.imageLayers.size);
+        assertEquals("images/bg.png", data.imageLayers.get(0).path);
+        assertEquals(12.5f, data.imageLayers.get(0).offsetX, 0);
+    }
+
+    @Test
+    public void truncatedFileFallsBack() throws IOException {
+        byte[] bytes = write(sample());
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(bytes, 0, truncated, 0, length);
+            assertNull("length " + length, LevelData.read(file(truncated)));
+        }
+    }
+
+    @Test
+    public void corruptLengthFallsBack() throws IOException {
+        byte[] bytes = write(sample());
+        // Длина первого куска земли: после заголовка, 4 int, режима, двух прямоугольников и числа кусков
+        int offset = 4 + 4 + 1 + 4 * 4 + 1 + 16 * 2 + 4;
+        ByteBuffer.wrap(bytes).putInt(offset, -5);
+        assertNull(LevelData.read(file(bytes)));
+
+        ByteBuffer.wrap(bytes).putInt(offset, Integer.MAX_VALUE);
+        assertNull(LevelData.read(file(bytes)));
+    }
+
+    private static LevelData sample() {
+        LevelData data = new LevelData();
+        data.mapWidth = 40;
+        data.mapHeight = 10;
+        data.tileWidth = 32;
+        data.tileHeight = 32;
+        data.player = new Rectangle(10, 20, 30, 40);
+        data.finish = new Rectangle(100, 20, 30, 40);
+        data.polygons.add(new float[]{0, 0, 1, 0, 1, 1});
+        data.rectangles.add(new Rectangle(0, 0, 5, 1));
+
+        LevelData.ImageLayer layer = new LevelData.ImageLayer();
+        layer.name = "bg";
+        layer.path = "images/bg.png";
+        layer.width = 256;
+        layer.height = 128;
+        layer.offsetX = 12.5f;
+        data.imageLayers.add(layer);
+        return data;
+    }
+
+    private static byte[] write(LevelData data) throws IOException {
+        FileHandle file = temp();
+        data.write(file);
+        return file.readBytes();
+    }
+
+    private static FileHandle file(byte[] bytes) throws IOException {
+        FileHandle file = temp();
+        file.writeBytes(bytes, false);
+        return file;
+    }
+
+    private static FileHandle temp() throws IOException {
+        File file = File.createTempFile("level", ".bin");
+        file.deleteOnExit();
+        return new FileHandle(file);
+    }
+}
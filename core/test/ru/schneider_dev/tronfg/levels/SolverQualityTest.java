@@ -0,0 +1,104 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import org.junit.Test;
+import ru.schneider_dev.tronfg.Setting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Итерации решателя по сглаженному времени кадра: на земле при медленных кадрах
+ * снижаются на одну за шаг до середины диапазона и возвращаются к максимуму,
+ * когда среднее снова в Setting.FRAME_BUDGET_MS; в воздухе всегда минимум.
+ */
+public class SolverQualityTest {
+
+    private static final float FAST_FRAME = 1 / 60f;
+    private static final float SLOW_FRAME = 1 / 20f;
+
+    private static final int VELOCITY_FLOOR = (Setting.VELOCITY_ITERATIONS_MIN + Setting.VELOCITY_ITERATIONS_MAX) / 2;
+    private static final int POSITION_FLOOR = (Setting.POSITION_ITERATIONS_MIN + Setting.POSITION_ITERATIONS_MAX) / 2;
+
+    /**
+     * Кадры одной длины, пока среднее не окажется по нужную сторону бюджета
+     */
+    private static void settle(SolverQuality solver, float frame, boolean overBudget) {
+        for (int i = 0; i < 1000 && (solver.getAverageFrameMs() > Setting.FRAME_BUDGET_MS) != overBudget; i++) {
+            solver.addFrame(frame);
+        }
+        assertEquals(overBudget, solver.getAverageFrameMs() > Setting.FRAME_BUDGET_MS);
+    }
+
+    @Test
+    public void fastFramesKeepMaximumOnGround() {
+        SolverQuality solver = new SolverQuality();
+        for (int i = 0; i < 100; i++) {
+            solver.addFrame(FAST_FRAME);
+            solver.update(1);
+            assertEquals(Setting.VELOCITY_ITERATIONS_MAX, solver.getVelocityIterations());
+            assertEquals(Setting.POSITION_ITERATIONS_MAX, solver.getPositionIterations());
+        }
+        assertEquals(0, solver.getReducedShare(), 0);
+    }
+
+    @Test
+    public void slowFramesStepDownToMiddleAndRecover() {
+        SolverQuality solver = new SolverQuality();
+        settle(solver, SLOW_FRAME, true);
+        for (int i = 0; i < 100; i++) {
+            solver.addFrame(SLOW_FRAME);
+        }
+
+        int velocity = Setting.VELOCITY_ITERATIONS_MAX;
+        int position = Setting.POSITION_ITERATIONS_MAX;
+        for (int step = 0; step < Setting.VELOCITY_ITERATIONS_MAX + Setting.POSITION_ITERATIONS_MAX; step++) {
+            solver.update(1);
+            velocity = Math.max(velocity - 1, VELOCITY_FLOOR);
+            position = Math.max(position - 1, POSITION_FLOOR);
+            assertEquals("step " + step, velocity, solver.getVelocityIterations());
+            assertEquals("step " + step, position, solver.getPositionIterations());
+        }
+        assertEquals(VELOCITY_FLOOR, solver.getVelocityIterations());
+        assertEquals(POSITION_FLOOR, solver.getPositionIterations());
+
+        // Среднее еще над бюджетом - итерации остаются на середине
+        solver.addFrame(FAST_FRAME);
+        assertTrue(solver.getAverageFrameMs() > Setting.FRAME_BUDGET_MS);
+        solver.update(1);
+        assertEquals(VELOCITY_FLOOR, solver.getVelocityIterations());
+
+        settle(solver, FAST_FRAME, false);
+        solver.update(1);
+        assertEquals(Setting.VELOCITY_ITERATIONS_MAX, solver.getVelocityIterations());
+        assertEquals(Setting.POSITION_ITERATIONS_MAX, solver.getPositionIterations());
+    }
+
+    @Test
+    public void singleSlowFrameIsSmoothedOut() {
+        SolverQuality solver = new SolverQuality();
+        settle(solver, FAST_FRAME, false);
+        for (int i = 0; i < 100; i++) {
+            solver.addFrame(FAST_FRAME);
+        }
+
+        // Один пропущенный кадр при vsync
+        solver.addFrame(2 * FAST_FRAME);
+        solver.update(1);
+        assertEquals(Setting.VELOCITY_ITERATIONS_MAX, solver.getVelocityIterations());
+    }
+
+    @Test
+    public void airborneUsesMinimumWhateverTheFrameTime() {
+        SolverQuality solver = new SolverQuality();
+        settle(solver, SLOW_FRAME, true);
+        solver.update(0);
+        assertEquals(Setting.VELOCITY_ITERATIONS_MIN, solver.getVelocityIterations());
+        assertEquals(Setting.POSITION_ITERATIONS_MIN, solver.getPositionIterations());
+
+        settle(solver, FAST_FRAME, false);
+        solver.update(0);
+        assertEquals(Setting.VELOCITY_ITERATIONS_MIN, solver.getVelocityIterations());
+        assertEquals(Setting.POSITION_ITERATIONS_MIN, solver.getPositionIterations());
+    }
+}
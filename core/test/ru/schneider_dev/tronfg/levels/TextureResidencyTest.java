@@ -0,0 +1,68 @@
+package ru.schneider_dev.tronfg.levels;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.XmlReader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.schneider_dev.tronfg.HeadlessGdx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Слои картинок грузятся по тому же положению, по которому рисуются,
+ * со смещением offsetx из TMX ровно один раз. Рабочая папка - android/assets.
+ */
+public class TextureResidencyTest {
+
+    private static final int LEVEL_COUNT = 16;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.init();
+    }
+
+    @Test
+    public void layerPositionsIncludeOffsetOnce() {
+        int offsetLayers = 0;
+        for (int id = 1; id <= LEVEL_COUNT; id++) {
+            String path = "tiled/level" + id + "/level.tmx";
+
+            // Где слой по TMX: offsetx, если задан, иначе x
+            Array<XmlReader.Element> elements = new XmlReader().parse(Gdx.files.internal(path)).getChildrenByName("imagelayer");
+
+            GeometryMapLoader loader = new GeometryMapLoader();
+            TiledMap map = loader.loadGeometry(path);
+            int index = 0;
+            for (MapLayer layer : map.getLayers()) {
+                if (!(layer instanceof TiledMapImageLayer)) continue;
+                TiledMapImageLayer imageLayer = (TiledMapImageLayer) layer;
+                XmlReader.Element element = elements.get(index++);
+
+                float expected = element.getFloatAttribute("offsetx", element.getFloatAttribute("x", 0));
+                if (element.hasAttribute("offsetx")) offsetLayers++;
+
+                LevelData.ImageLayer source = LevelData.ImageLayer.fromMap(imageLayer, loader.getImagePath(imageLayer.getTextureRegion()));
+                assertEquals(path + " " + layer.getName(), expected, source.x, 0);
+                // LevelBackground рисует слой в getX()
+                assertEquals(path + " " + layer.getName(), expected, imageLayer.getX(), 0);
+            }
+            assertEquals(path, elements.size, index);
+            map.dispose();
+        }
+        assertTrue("no layers with offsetx", offsetLayers > 0);
+    }
+
+    @Test
+    public void distanceToScreen() {
+        // Слой со смещением 1600 и шириной 800, экран 0..800
+        assertEquals(800, TextureResidency.distance(1600, 800, 0, 800), 0);
+        assertEquals(0, TextureResidency.distance(1600, 800, 1500, 2300), 0);
+        assertEquals(100, TextureResidency.distance(1600, 800, 2500, 3300), 0);
+    }
+}
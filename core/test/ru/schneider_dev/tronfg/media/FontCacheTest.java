@@ -0,0 +1,78 @@
+package ru.schneider_dev.tronfg.media;
+
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
+import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.schneider_dev.tronfg.HeadlessGdx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * FontCache отдает уже загруженный размер шрифта, сколько бы раз его ни брали и ни отдавали:
+ * число текстур и генераций не растет. Последний release выгружает шрифт.
+ * Рабочая папка - android/assets.
+ */
+public class FontCacheTest {
+
+    // Размеры, загруженные при старте (как таймеры уровня в TRONgame.create)
+    private static final int LOADED_SIZE = 30;
+    private static final int OTHER_LOADED_SIZE = 24;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.init();
+    }
+
+    private static FontCache startupFonts(AssetManager assets) {
+        InternalFileHandleResolver resolver = new InternalFileHandleResolver();
+        assets.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
+        assets.setLoader(BitmapFont.class, new FreetypeFontLoader(resolver));
+
+        FontCache fonts = new FontCache(assets);
+        fonts.load(FontCache.GROBOLD, LOADED_SIZE);
+        fonts.load(FontCache.GROBOLD, OTHER_LOADED_SIZE);
+        assets.finishLoading();
+        return fonts;
+    }
+
+    @Test
+    public void acquireReusesLoadedFonts() {
+        AssetManager assets = new AssetManager();
+        FontCache fonts = startupFonts(assets);
+        int textures = Texture.getNumManagedTextures();
+        int generated = fonts.getGeneratedCount();
+        BitmapFont font = fonts.get(FontCache.GROBOLD, LOADED_SIZE);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(font, fonts.acquire(FontCache.GROBOLD, LOADED_SIZE));
+            fonts.acquire(FontCache.GROBOLD, OTHER_LOADED_SIZE);
+            fonts.release(FontCache.GROBOLD, LOADED_SIZE);
+            fonts.release(FontCache.GROBOLD, OTHER_LOADED_SIZE);
+        }
+
+        assertEquals(textures, Texture.getNumManagedTextures());
+        assertEquals(generated, fonts.getGeneratedCount());
+        assets.dispose();
+    }
+
+    @Test
+    public void lastReleaseFreesTextures() {
+        AssetManager assets = new AssetManager();
+        FontCache fonts = startupFonts(assets);
+        int textures = Texture.getNumManagedTextures();
+
+        fonts.acquire(FontCache.GROBOLD, 60);
+        assertEquals(textures + 1, Texture.getNumManagedTextures());
+        fonts.release(FontCache.GROBOLD, 60);
+        assertEquals(textures, Texture.getNumManagedTextures());
+        assets.dispose();
+    }
+}
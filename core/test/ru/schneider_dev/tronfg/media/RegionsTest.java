@@ -0,0 +1,117 @@
+package ru.schneider_dev.tronfg.media;
+
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.schneider_dev.tronfg.HeadlessGdx;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Regions на настоящем images/pack.atlas: каждая константа отдает тот же регион, что findRegion,
+ * а сборка списка уровней с готовыми регионами быстрее, чем с поиском по имени.
+ * Рабочая папка - android/assets.
+ */
+public class RegionsTest {
+
+    // Как LevelList: фон и 4 картинки на каждую из 16 иконок уровней
+    private static final int LEVEL_ICONS = 16;
+    private static final int WARMUP_BUILDS = 20000;
+    private static final int BUILDS = 20000;
+
+    private static TextureAtlas shared;
+    private static LocalizedAtlas atlas;
+
+    // Сумма хэшей регионов, чтобы JIT не выбросил поиск
+    private static int sink;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.init();
+        shared = new TextureAtlas(LocalizedAtlas.SHARED_PATH);
+        atlas = new LocalizedAtlas(shared, null);
+        Regions.resolve(atlas);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        shared.dispose();
+    }
+
+    @Test
+    public void handlesMatchFindRegion() {
+        for (Regions.Region handle : Regions.getAll()) {
+            AtlasRegion region = atlas.findRegion(handle.name);
+            assertNotNull(handle.name, region);
+            assertSame(handle.name, region, handle.get());
+        }
+    }
+
+    @Test
+    public void missingNamesAreListed() {
+        try {
+            Regions.resolve(new LocalizedAtlas(new TextureAtlas(), null));
+            fail("resolve of an empty atlas must throw");
+        } catch (GdxRuntimeException e) {
+            for (Regions.Region handle : Regions.getAll()) {
+                assertTrue(e.getMessage(), e.getMessage().contains(handle.name));
+            }
+        } finally {
+            Regions.resolve(atlas);
+        }
+    }
+
+    @Test
+    public void handlesAreFasterThanFindRegion() {
+        for (int i = 0; i < WARMUP_BUILDS; i++) {
+            buildWithFindRegion();
+            buildWithHandles();
+        }
+
+        long findNanos = 0, handleNanos = 0;
+        for (int i = 0; i < BUILDS; i++) {
+            long start = System.nanoTime();
+            buildWithFindRegion();
+            findNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            buildWithHandles();
+            handleNanos += System.nanoTime() - start;
+        }
+
+        Gdx.app.log("RegionsTest", String.format("level list, %d lookups: findRegion %.2f us, handles %.2f us (%d)",
+                1 + LEVEL_ICONS * 4, findNanos / 1e3 / BUILDS, handleNanos / 1e3 / BUILDS, sink));
+        assertTrue("handles " + handleNanos + " ns, findRegion " + findNanos + " ns", handleNanos < findNanos);
+    }
+
+    /**
+     * Регионы LevelList и LevelIcon, как до Regions
+     */
+    private static void buildWithFindRegion() {
+        sink += atlas.findRegion("intro_bg").hashCode();
+        for (int i = 0; i < LEVEL_ICONS; i++) {
+            sink += atlas.findRegion("level_icon_hilite").hashCode();
+            sink += atlas.findRegion("level_icon_bg").hashCode();
+            sink += atlas.findRegion("level_icon_bg_down").hashCode();
+            sink += atlas.findRegion("level_icon_bg_lock").hashCode();
+        }
+    }
+
+    private static void buildWithHandles() {
+        sink += Regions.INTRO_BG.get().hashCode();
+        for (int i = 0; i < LEVEL_ICONS; i++) {
+            sink += Regions.LEVEL_ICON_HILITE.get().hashCode();
+            sink += Regions.LEVEL_ICON_BG.get().hashCode();
+            sink += Regions.LEVEL_ICON_BG_DOWN.get().hashCode();
+            sink += Regions.LEVEL_ICON_BG_LOCK.get().hashCode();
+        }
+    }
+}
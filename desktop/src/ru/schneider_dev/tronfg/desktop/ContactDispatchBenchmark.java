@@ -0,0 +1,200 @@
+package ru.schneider_dev.tronfg.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.utils.Array;
+
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.levels.GeometryMapLoader;
+import ru.schneider_dev.tronfg.levels.LevelSimulation;
+import ru.schneider_dev.tronfg.player.CarHull;
+import ru.schneider_dev.tronfg.player.PlayerBody;
+import ru.schneider_dev.tronfg.player.UserData;
+
+/**
+ * Сравнивает разбор контактов таблицей по UserData.kind (LevelSimulation.contactType)
+ * с прежней цепочкой if: сравнения тел с колесами и корпусом и строк "land"/"finish".
+ * Пары тел записываются со всех уровней (газ в пол, касающиеся контакты на каждом шаге),
+ * потом оба способа много раз проходят по записи. Поиск фикстур и тел через JNI
+ * у обоих способов одинаковый и в замер не входит. Печатается время на пару и
+ * число пар, где способы дали разную реакцию (должно быть 0).
+ * Запуск: gradlew desktop:benchmarkContacts (рабочая папка - android/assets)
+ */
+public class ContactDispatchBenchmark extends ApplicationAdapter {
+
+	private static final int LEVEL_COUNT = 16;
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int ROUNDS = 50;
+
+	// Прежние UserData.name по роли тела
+	private static final String[] NAMES = new String[UserData.KIND_COUNT];
+
+	static {
+		for (int kind = 0; kind < UserData.KIND_COUNT; kind++) {
+			NAMES[kind] = UserData.kindName(kind);
+		}
+	}
+
+	private final int steps;
+
+	// Записанные пары: тела контакта, машина и финиш его уровня
+	private final Array<Body> bodiesA = new Array<Body>();
+	private final Array<Body> bodiesB = new Array<Body>();
+	private final Array<PlayerBody> players = new Array<PlayerBody>();
+	private final Array<Body> finishes = new Array<Body>();
+
+	// Сумма реакций, чтобы JIT не выбросил разбор
+	private long sink;
+
+	public ContactDispatchBenchmark(int steps) {
+		this.steps = steps;
+	}
+
+	@Override
+	public void create() {
+		CarHull hull = CarHull.fromOutline(LevelBenchmark.traceCarOutline("images/pack.atlas", "rover_model"));
+		for (int id = 1; id <= LEVEL_COUNT; id++) {
+			recordLevel(id, hull);
+		}
+
+		int mismatches = 0;
+		int[] counts = new int[LevelSimulation.CONTACT_WHEEL_LAND + 1];
+		for (int i = 0; i < bodiesA.size; i++) {
+			int table = tableDispatch(bodiesA.get(i), bodiesB.get(i));
+			if (table != chainDispatch(bodiesA.get(i), bodiesB.get(i), players.get(i), finishes.get(i))) mismatches++;
+			counts[table]++;
+		}
+		System.out.println(String.format("pairs: %d (none %d, finish %d, car-land %d, wheel-land %d), mismatches: %d",
+				bodiesA.size, counts[LevelSimulation.CONTACT_NONE], counts[LevelSimulation.CONTACT_FINISH],
+				counts[LevelSimulation.CONTACT_CAR_LAND], counts[LevelSimulation.CONTACT_WHEEL_LAND], mismatches));
+
+		// Прогрев JIT, потом замеры вперемешку, чтобы оба способа были в равных условиях
+		for (int round = 0; round < WARMUP_ROUNDS; round++) {
+			runTable();
+			runChain();
+		}
+		long tableNanos = 0, chainNanos = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			tableNanos += runTable();
+			chainNanos += runChain();
+		}
+
+		double pairs = (double) bodiesA.size * ROUNDS;
+		System.out.println(String.format("table %.2f ns/pair, if-chain %.2f ns/pair (%d)",
+				tableNanos / pairs, chainNanos / pairs, sink));
+		Gdx.app.exit();
+	}
+
+	/**
+	 * Газ в пол до финиша, проигрыша или конца лимита шагов; после каждого шага
+	 * записываются все касающиеся контакты
+	 */
+	private void recordLevel(int id, CarHull hull) {
+		float frame = 1f / Setting.PHYSICS_STEP_RATE;
+
+		TiledMap map = new GeometryMapLoader().loadGeometry("tiled/level" + id + "/level.tmx");
+		LevelSimulation simulation = new LevelSimulation();
+		simulation.build(map, hull);
+
+		simulation.setControls(true, false);
+		int count = 0;
+		while (count < steps && !simulation.isCompleted() && !simulation.isFailed()) {
+			simulation.update(frame, true);
+			count++;
+			for (Contact contact : simulation.getWorld().getContactList()) {
+				if (!contact.isTouching()) continue;
+				bodiesA.add(contact.getFixtureA().getBody());
+				bodiesB.add(contact.getFixtureB().getBody());
+				players.add(simulation.getPlayer());
+				finishes.add(simulation.getFinish());
+			}
+		}
+
+		// Тела остаются в записи как объекты Java: нужны только ссылки и UserData
+		simulation.dispose();
+		map.dispose();
+	}
+
+	private long runTable() {
+		long start = System.nanoTime();
+		for (int i = 0; i < bodiesA.size; i++) {
+			sink += tableDispatch(bodiesA.get(i), bodiesB.get(i));
+		}
+		return System.nanoTime() - start;
+	}
+
+	private long runChain() {
+		long start = System.nanoTime();
+		for (int i = 0; i < bodiesA.size; i++) {
+			sink += chainDispatch(bodiesA.get(i), bodiesB.get(i), players.get(i), finishes.get(i));
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Как beginContact в LevelSimulation
+	 */
+	private static int tableDispatch(Body bodyA, Body bodyB) {
+		UserData dataA = (UserData) bodyA.getUserData();
+		UserData dataB = (UserData) bodyB.getUserData();
+		if (dataA == null || dataB == null) return LevelSimulation.CONTACT_NONE;
+		return LevelSimulation.contactType(dataA.kind, dataB.kind);
+	}
+
+	/**
+	 * Прежний beginContact: те же проверки в том же порядке, вместо действий - код реакции
+	 */
+	private static int chainDispatch(Body bodyA, Body bodyB, PlayerBody player, Body finish) {
+		if (isFinishBody(bodyA, finish) || isFinishBody(bodyB, finish)) {
+			Body playerBody = (bodyA == player.car || bodyA == player.frontWheel || bodyA == player.rearWheel) ? bodyA : bodyB;
+			if (playerBody != null) {
+				return LevelSimulation.CONTACT_FINISH;
+			}
+		}
+
+		if (bodyA == player.car) {
+			return playerTouch(bodyB, finish);
+		}
+		if (bodyB == player.car) {
+			return playerTouch(bodyA, finish);
+		}
+
+		if (bodyA == player.frontWheel || bodyA == player.rearWheel) {
+			UserData data = (UserData) bodyB.getUserData();
+			if (data != null && NAMES[data.kind].equals("land")) return LevelSimulation.CONTACT_WHEEL_LAND;
+		}
+		if (bodyB == player.frontWheel || bodyB == player.rearWheel) {
+			UserData data = (UserData) bodyA.getUserData();
+			if (data != null && NAMES[data.kind].equals("land")) return LevelSimulation.CONTACT_WHEEL_LAND;
+		}
+		return LevelSimulation.CONTACT_NONE;
+	}
+
+	private static boolean isFinishBody(Body body, Body finish) {
+		if (body == finish) return true;
+		UserData data = (UserData) body.getUserData();
+		return data != null && "finish".equals(NAMES[data.kind]);
+	}
+
+	private static int playerTouch(Body body, Body finish) {
+		UserData data = (UserData) body.getUserData();
+		if (data != null) {
+			if (NAMES[data.kind].equals("land")) return LevelSimulation.CONTACT_CAR_LAND;
+			if (NAMES[data.kind].equals("finish")) return LevelSimulation.CONTACT_FINISH;
+		}
+		return body == finish ? LevelSimulation.CONTACT_FINISH : LevelSimulation.CONTACT_NONE;
+	}
+
+	public static void main(String[] args) {
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : 60 * 120;
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1;
+		new HeadlessApplication(new ContactDispatchBenchmark(steps), config);
+	}
+}
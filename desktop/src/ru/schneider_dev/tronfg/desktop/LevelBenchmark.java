@@ -0,0 +1,141 @@
+package ru.schneider_dev.tronfg.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.levels.GeometryMapLoader;
+import ru.schneider_dev.tronfg.levels.LevelSimulation;
+import ru.schneider_dev.tronfg.levels.TerrainActivation;
+import ru.schneider_dev.tronfg.player.CarHull;
+import ru.schneider_dev.tronfg.player.PlayerBody;
+
+/**
+ * Прогоняет физику всех уровней без экрана и печатает скорость симуляции,
+ * с выключением далекой земли (TerrainActivation) и без него; active - среднее число включенных тел земли.
+ * Запуск: gradlew desktop:benchmarkLevels (рабочая папка - android/assets)
+ */
+public class LevelBenchmark extends ApplicationAdapter {
+
+	private static final int LEVEL_COUNT = 16;
+
+	// Варианты сборки земли, которые сравниваются на каждом уровне
+	private static final String[] TERRAIN_VARIANTS = {"split", "merged", "convex", "chain"};
+
+	private final int steps;
+
+	public LevelBenchmark(int steps) {
+		this.steps = steps;
+	}
+
+	@Override
+	public void create() {
+		CarHull hull = CarHull.fromOutline(traceCarOutline("images/pack.atlas", "rover_model"));
+
+		System.out.println("level  terrain  activ  bodies  active  fixtures  build_ms  step_us  steps/s   result");
+		for (int id = 1; id <= LEVEL_COUNT; id++) {
+			for (String variant : TERRAIN_VARIANTS) {
+				runLevel(id, variant, hull, false);
+				runLevel(id, variant, hull, true);
+			}
+		}
+
+		Gdx.app.exit();
+	}
+
+	/**
+	 * @param activation выключать ли землю вдали от машины (TerrainActivation)
+	 */
+	private void runLevel(int id, String variant, CarHull hull, boolean activation) {
+		float frame = 1f / Setting.PHYSICS_STEP_RATE;
+		long start = System.nanoTime();
+
+		TiledMap map = new GeometryMapLoader().loadGeometry("tiled/level" + id + "/level.tmx");
+		LevelSimulation simulation = new LevelSimulation();
+		applyVariant(simulation, variant);
+		simulation.setTerrainActivation(activation);
+		simulation.build(map, hull);
+
+		long built = System.nanoTime();
+
+		// Газ в пол до финиша, проигрыша или конца лимита шагов
+		simulation.setControls(true, false);
+		int count = 0;
+		long activeSum = 0;
+		TerrainActivation terrainActivation = simulation.getTerrainActivation();
+		while (count < steps && !simulation.isCompleted() && !simulation.isFailed()) {
+			simulation.update(frame, true);
+			count++;
+			activeSum += terrainActivation != null ? terrainActivation.getActiveCount() : simulation.getTerrain().getBodies().size;
+		}
+
+		long done = System.nanoTime();
+
+		String result = simulation.isCompleted() ? "finish" : simulation.isFailed() ? "failed" : "timeout";
+		System.out.println(String.format("%5d  %-7s  %-5s  %6d  %6.1f  %8d  %8.1f  %7.1f  %7.0f   %s (%d steps)",
+				id,
+				variant,
+				activation ? "on" : "off",
+				simulation.getWorld().getBodyCount(),
+				activeSum / (float) Math.max(1, count),
+				simulation.getTerrain().getFixtureCount(),
+				(built - start) / 1e6,
+				(done - built) / 1e3 / count,
+				count / ((done - built) / 1e9),
+				result, count));
+
+		simulation.dispose();
+		map.dispose();
+	}
+
+	private static void applyVariant(LevelSimulation simulation, String variant) {
+		if (variant.equals("split")) {
+			simulation.setMergeTerrain(false);
+			simulation.setConvexPieces(false);
+			simulation.setTerrainMode(LevelSimulation.TERRAIN_POLYGON);
+		} else if (variant.equals("merged")) {
+			simulation.setMergeTerrain(true);
+			simulation.setConvexPieces(false);
+			simulation.setTerrainMode(LevelSimulation.TERRAIN_POLYGON);
+		} else if (variant.equals("convex")) {
+			simulation.setMergeTerrain(true);
+			simulation.setConvexPieces(true);
+			simulation.setTerrainMode(LevelSimulation.TERRAIN_POLYGON);
+		} else if (variant.equals("chain")) {
+			simulation.setMergeTerrain(true);
+			simulation.setTerrainMode(LevelSimulation.TERRAIN_CHAIN);
+		}
+	}
+
+	/**
+	 * Строит контур машины по странице атласа, не создавая текстур
+	 */
+	static float[] traceCarOutline(String atlasFile, String regionName) {
+		FileHandle packFile = Gdx.files.internal(atlasFile);
+		TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(packFile, packFile.parent(), false);
+
+		for (TextureAtlas.TextureAtlasData.Region region : data.getRegions()) {
+			if (region.name.equals(regionName)) {
+				Pixmap page = new Pixmap(region.page.textureFile);
+				float[] outline = PlayerBody.traceOutline(page, region.left, region.top, region.width, region.height);
+				page.dispose();
+				return outline;
+			}
+		}
+		throw new IllegalArgumentException("region not found: " + regionName);
+	}
+
+	public static void main(String[] args) {
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : 60 * 120;
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1;
+		new HeadlessApplication(new LevelBenchmark(steps), config);
+	}
+}
@@ -0,0 +1,118 @@
+package ru.schneider_dev.tronfg.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+
+import ru.schneider_dev.tronfg.levels.GeometryMapLoader;
+import ru.schneider_dev.tronfg.levels.LevelData;
+import ru.schneider_dev.tronfg.levels.LevelSimulation;
+import ru.schneider_dev.tronfg.player.CarHull;
+
+/**
+ * Собирает tiled/levelN/level.tmx в level.bin рядом с ним (см. LevelData).
+ * Запуск: gradlew desktop:compileLevels (рабочая папка - android/assets).
+ * С аргументом "compare" дополнительно сравнивает время загрузки уровня из TMX и из level.bin.
+ */
+public class LevelCompiler extends ApplicationAdapter {
+
+	private static final String LEVELS_DIR = "tiled";
+	private static final int REPEAT = 5;
+
+	private final boolean compare;
+
+	public LevelCompiler(boolean compare) {
+		this.compare = compare;
+	}
+
+	@Override
+	public void create() {
+		CarHull hull = compare ? CarHull.fromOutline(LevelBenchmark.traceCarOutline("images/pack.atlas", "rover_model")) : null;
+
+		if (compare) {
+			System.out.println("level      tmx_bytes  bin_bytes  tmx_ms  bin_ms  world_ms");
+		}
+
+		for (FileHandle dir : Gdx.files.local(LEVELS_DIR).list()) {
+			FileHandle tmxFile = dir.child("level.tmx");
+			if (!dir.isDirectory() || !tmxFile.exists()) continue;
+
+			FileHandle binFile = dir.child(LevelData.BINARY_NAME);
+			compile(tmxFile, binFile);
+
+			if (compare) {
+				compareLoad(dir.name(), tmxFile, binFile, hull);
+			} else {
+				System.out.println(binFile.path() + ": " + binFile.length() + " bytes");
+			}
+		}
+
+		Gdx.app.exit();
+	}
+
+	private static void compile(FileHandle tmxFile, FileHandle binFile) {
+		GeometryMapLoader loader = new GeometryMapLoader();
+		TiledMap map = loader.loadGeometry(tmxFile.path());
+
+		LevelData data = LevelData.fromMap(map);
+		for (MapLayer layer : map.getLayers()) {
+			if (!(layer instanceof TiledMapImageLayer)) continue;
+
+			TiledMapImageLayer imageLayer = (TiledMapImageLayer) layer;
+			LevelData.ImageLayer source = LevelData.ImageLayer.fromMap(imageLayer, loader.getImagePath(imageLayer.getTextureRegion()));
+
+			Pixmap image = new Pixmap(Gdx.files.internal(source.path));
+			source.width = image.getWidth();
+			source.height = image.getHeight();
+			image.dispose();
+			data.imageLayers.add(source);
+		}
+
+		data.write(binFile);
+		map.dispose();
+	}
+
+	/**
+	 * Разбор геометрии обоими способами (лучшее из REPEAT попыток) и сборка мира из level.bin.
+	 * Текстуры здесь не грузятся: они одинаковые в обоих случаях, а без GL их не создать.
+	 */
+	private static void compareLoad(String name, FileHandle tmxFile, FileHandle binFile, CarHull hull) {
+		long tmxTime = Long.MAX_VALUE;
+		long binTime = Long.MAX_VALUE;
+
+		for (int i = 0; i < REPEAT; i++) {
+			long start = System.nanoTime();
+			TiledMap map = new GeometryMapLoader().loadGeometry(tmxFile.path());
+			LevelData.fromMap(map);
+			tmxTime = Math.min(tmxTime, System.nanoTime() - start);
+			map.dispose();
+
+			start = System.nanoTime();
+			LevelData.read(binFile);
+			binTime = Math.min(binTime, System.nanoTime() - start);
+		}
+
+		long start = System.nanoTime();
+		LevelSimulation simulation = new LevelSimulation();
+		simulation.build(LevelData.read(binFile), hull);
+		long worldTime = System.nanoTime() - start;
+		simulation.dispose();
+
+		System.out.println(String.format("%-9s  %9d  %9d  %6.2f  %6.2f  %8.1f",
+				name, tmxFile.length(), binFile.length(), tmxTime / 1e6, binTime / 1e6, worldTime / 1e6));
+	}
+
+	public static void main(String[] args) {
+		boolean compare = args.length > 0 && args[0].equals("compare");
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1;
+		new HeadlessApplication(new LevelCompiler(compare), config);
+	}
+}
@@ -0,0 +1,130 @@
+package ru.schneider_dev.tronfg.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+
+import ru.schneider_dev.tronfg.Setting;
+import ru.schneider_dev.tronfg.levels.GeometryMapLoader;
+import ru.schneider_dev.tronfg.levels.LevelSimulation;
+import ru.schneider_dev.tronfg.levels.SolverQuality;
+import ru.schneider_dev.tronfg.player.CarHull;
+
+/**
+ * Проверяет, что подстройка итераций решателя (SolverQuality) не ломает физику:
+ * каждый уровень проезжается с постоянным максимумом итераций и с подстройкой,
+ * печатаются итог, время LevelSimulation.update на кадр, доля шагов с урезанными итерациями и
+ * среднее и наибольшее расхождение шарниров колес (joint_avg, joint_max, единицы мира).
+ * Строка помечается UNSTABLE, если с подстройкой расхождение шарниров заметно больше, чем без нее.
+ * Итог заезда может отличаться и так: газ в пол на одних и тех же кочках - хаотичная система,
+ * ее уводит любое изменение решателя, как и смена порядка контактов; такие строки помечены diverged.
+ * Кадры идут по 1/60 с, так что итерации режутся только в воздухе: снижение на земле
+ * зависит от времени кадра на устройстве (см. Setting.FRAME_BUDGET_MS).
+ * Запуск: gradlew desktop:solverRegression (рабочая папка - android/assets)
+ */
+public class SolverRegression extends ApplicationAdapter {
+
+	private static final int LEVEL_COUNT = 16;
+
+	// Расхождение шарниров, которое точно не видно на экране (меньше пикселя уровня)
+	private static final float JOINT_ERROR_TOLERANCE = 1f / LevelSimulation.WORLD_SCALE;
+
+	private final int steps;
+
+	private String result;
+	private int count;
+	private float updateMicros;
+	private float reducedShare;
+	private float jointError;
+	private float jointErrorSum;
+
+	public SolverRegression(int steps) {
+		this.steps = steps;
+	}
+
+	@Override
+	public void create() {
+		CarHull hull = CarHull.fromOutline(LevelBenchmark.traceCarOutline("images/pack.atlas", "rover_model"));
+
+		// Прогрев JIT, чтобы время первого уровня было сравнимо с остальными
+		runLevel(1, hull, false);
+		runLevel(1, hull, true);
+
+		System.out.println("level  solver  update_us  reduced  joint_avg  joint_max   result");
+		int unstable = 0;
+		int diverged = 0;
+		long fixedNanos = 0, adaptiveNanos = 0;
+		for (int id = 1; id <= LEVEL_COUNT; id++) {
+			runLevel(id, hull, false);
+			String fixedResult = result;
+			float fixedAverage = jointErrorSum / Math.max(1, count);
+			float fixedMax = jointError;
+			fixedNanos += (long) (updateMicros * 1e3f * count);
+			print(id, "fixed", "");
+
+			runLevel(id, hull, true);
+			adaptiveNanos += (long) (updateMicros * 1e3f * count);
+			boolean failed = jointErrorSum / Math.max(1, count) > Math.max(fixedAverage * 2, JOINT_ERROR_TOLERANCE)
+					|| jointError > Math.max(fixedMax * 2, JOINT_ERROR_TOLERANCE);
+			if (failed) unstable++;
+			if (!result.equals(fixedResult)) diverged++;
+			print(id, "adaptive", failed ? "  UNSTABLE" : !result.equals(fixedResult) ? "  diverged" : "");
+		}
+
+		System.out.println(String.format("physics time: fixed %.1f ms, adaptive %.1f ms; diverged %d of %d",
+				fixedNanos / 1e6, adaptiveNanos / 1e6, diverged, LEVEL_COUNT));
+		System.out.println(unstable == 0 ? "all levels stable" : unstable + " level(s) unstable");
+		Gdx.app.exit();
+	}
+
+	/**
+	 * Газ в пол до финиша, проигрыша или конца лимита шагов
+	 */
+	private void runLevel(int id, CarHull hull, boolean adaptive) {
+		float frame = 1f / Setting.PHYSICS_STEP_RATE;
+
+		TiledMap map = new GeometryMapLoader().loadGeometry("tiled/level" + id + "/level.tmx");
+		LevelSimulation simulation = new LevelSimulation();
+		simulation.setAdaptiveSolver(adaptive);
+		simulation.build(map, hull);
+
+		simulation.setControls(true, false);
+		count = 0;
+		jointError = 0;
+		jointErrorSum = 0;
+		long updateNanos = 0;
+		while (count < steps && !simulation.isCompleted() && !simulation.isFailed()) {
+			long start = System.nanoTime();
+			simulation.update(frame, true);
+			updateNanos += System.nanoTime() - start;
+			count++;
+			float error = simulation.getPlayer().getJointError();
+			jointError = Math.max(jointError, error);
+			jointErrorSum += error;
+		}
+
+		SolverQuality quality = simulation.getSolverQuality();
+		result = simulation.isCompleted() ? "finish" : simulation.isFailed() ? "failed" : "timeout";
+		updateMicros = updateNanos / 1e3f / Math.max(1, count);
+		reducedShare = quality != null ? quality.getReducedShare() : 0;
+
+		simulation.dispose();
+		map.dispose();
+	}
+
+	private void print(int id, String solver, String mark) {
+		System.out.println(String.format("%5d  %-8s  %7.1f  %6.0f%%  %9.5f  %9.5f   %s (%d steps)%s",
+				id, solver, updateMicros, reducedShare * 100, jointErrorSum / Math.max(1, count), jointError,
+				result, count, mark));
+	}
+
+	public static void main(String[] args) {
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : 60 * 120;
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1;
+		new HeadlessApplication(new SolverRegression(steps), config);
+	}
+}
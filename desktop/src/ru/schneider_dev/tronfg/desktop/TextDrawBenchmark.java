@@ -0,0 +1,158 @@
+package ru.schneider_dev.tronfg.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import ru.schneider_dev.tronfg.TRONgame;
+import ru.schneider_dev.tronfg.controls.MenuMusicTextButton;
+import ru.schneider_dev.tronfg.controls.MusicTextButton;
+import ru.schneider_dev.tronfg.media.FontCache;
+
+/**
+ * Сравнивает время draw() кнопок звука (MusicTextButton, MenuMusicTextButton) на CachedText
+ * с прежней отрисовкой: две раскладки GlyphLayout и font.draw в каждом кадре.
+ * Рисуется в настоящий SpriteBatch шрифтом font24, но без окна: GL ничего не делает,
+ * так что замер - работа процессора в кадре, одинаковые для обоих способов вызовы GL в нем пустые.
+ * Запуск: gradlew desktop:benchmarkTextDraw (рабочая папка - android/assets)
+ */
+public class TextDrawBenchmark extends ApplicationAdapter {
+
+	private static final int ROUNDS = 5;
+	// Кадров в раунде и как часто батч отдает вершины (как end/begin в кадре)
+	private static final int FRAMES = 200000;
+	private static final int FLUSH_FRAMES = 500;
+
+	// Цвета и отступ прежней MusicTextButton.draw
+	private static final Color MUSIC_COLOR = Color.WHITE;
+	private static final Color ON_COLOR = Color.GREEN;
+
+	private BitmapFont font;
+	private final GlyphLayout layout = new GlyphLayout();
+
+	@Override
+	public void create() {
+		installNoopGL();
+
+		FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal(FontCache.GROBOLD));
+		FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
+		parameter.size = 24;
+		font = generator.generateFont(parameter);
+		generator.dispose();
+
+		TRONgame.font24 = font;
+		TRONgame.isSoundMuted = false;
+		Actor[] buttons = {new MusicTextButton(), new MenuMusicTextButton()};
+		for (Actor button : buttons) {
+			button.setPosition(20, 20);
+		}
+
+		SpriteBatch batch = new SpriteBatch();
+		System.out.println("round  cached_us  layout_us");
+		for (int round = 0; round < ROUNDS; round++) {
+			long cachedNanos = run(batch, buttons, false);
+			long layoutNanos = run(batch, buttons, true);
+			System.out.println(String.format("%5d  %9.3f  %9.3f",
+					round, cachedNanos / 1e3 / FRAMES, layoutNanos / 1e3 / FRAMES));
+		}
+		System.out.println("us per frame for both buttons; the first rounds include JIT warm-up");
+
+		batch.dispose();
+		font.dispose();
+		Gdx.app.exit();
+	}
+
+	/**
+	 * @param layoutEveryFrame рисовать прежним способом
+	 * @return время всех кадров, нс
+	 */
+	private long run(Batch batch, Actor[] buttons, boolean layoutEveryFrame) {
+		long start = System.nanoTime();
+		batch.begin();
+		for (int frame = 0; frame < FRAMES; frame++) {
+			for (Actor button : buttons) {
+				if (layoutEveryFrame) {
+					drawWithLayout(batch, button, button instanceof MusicTextButton ? "MUSIC: " : "SOUND: ", 1);
+				} else {
+					button.draw(batch, 1);
+				}
+			}
+			if (frame % FLUSH_FRAMES == FLUSH_FRAMES - 1) {
+				batch.end();
+				batch.begin();
+			}
+		}
+		batch.end();
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Прежняя отрисовка кнопок звука, без изменений, кроме параметров
+	 */
+	private void drawWithLayout(Batch batch, Actor button, String musicText, float parentAlpha) {
+		String statusText = "ON";
+
+		font.setColor(MUSIC_COLOR.r, MUSIC_COLOR.g, MUSIC_COLOR.b, MUSIC_COLOR.a * parentAlpha);
+		layout.setText(font, musicText);
+		float musicX = button.getX();
+		float musicY = button.getY() + (button.getHeight() + layout.height) / 2;
+		float musicWidth = layout.width;
+		font.draw(batch, layout, musicX, musicY);
+
+		Color statusColor = ON_COLOR;
+		font.setColor(statusColor.r, statusColor.g, statusColor.b, statusColor.a * parentAlpha);
+		layout.setText(font, statusText);
+		float statusX = musicX + musicWidth + 8;
+		font.draw(batch, layout, statusX, musicY);
+	}
+
+	/**
+	 * GL20, который ничего не рисует: у headless-бэкенда своего GL нет, а SpriteBatch и текстурам шрифта он нужен
+	 */
+	private static void installNoopGL() {
+		GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						String name = method.getName();
+						// Шейдеры SpriteBatch "компилируются" без ошибок
+						if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+							int param = (Integer) args[1];
+							if (param == GL20.GL_COMPILE_STATUS || param == GL20.GL_LINK_STATUS) {
+								((IntBuffer) args[2]).put(0, 1);
+							}
+						}
+
+						Class<?> type = method.getReturnType();
+						// Ненулевые имена объектов GL, остальное - нули
+						if (type == int.class) return name.startsWith("glGen") || name.startsWith("glCreate") ? 1 : 0;
+						if (type == boolean.class) return false;
+						if (type == float.class) return 0f;
+						if (type == String.class) return "";
+						return null;
+					}
+				});
+		Gdx.gl = gl;
+		Gdx.gl20 = gl;
+	}
+
+	public static void main(String[] args) {
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1;
+		new HeadlessApplication(new TextDrawBenchmark(), config);
+	}
+}
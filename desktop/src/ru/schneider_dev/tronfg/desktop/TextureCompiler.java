@@ -0,0 +1,222 @@
+package ru.schneider_dev.tronfg.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.glutils.ETC1;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import ru.schneider_dev.tronfg.media.TextureFormats;
+
+/**
+ * Сжимает картинки уровней tiled/levelN/*.png в ETC1 (ZKTX рядом с PNG, см. TextureFormats).
+ * У ETC1 нет альфы, поэтому текстура двойной высоты: сверху RGB, снизу альфа.
+ * Мипмапы строятся для каждой половины отдельно, чтобы цвет и альфа не смешивались на стыке.
+ * Запуск: gradlew desktop:compressTextures (рабочая папка - android/assets).
+ * Нужны только headless backend и нативная библиотека gdx, дисплей не нужен.
+ */
+public class TextureCompiler extends ApplicationAdapter {
+
+	private static final String LEVELS_DIR = "tiled";
+
+	private static final byte[] KTX_IDENTIFIER = {
+			(byte) 0xAB, 0x4B, 0x54, 0x58, 0x20, 0x31, 0x31, (byte) 0xBB, 0x0D, 0x0A, 0x1A, 0x0A
+	};
+	private static final int GL_RGB = 0x1907;
+
+	private final boolean force;
+
+	public TextureCompiler(boolean force) {
+		this.force = force;
+	}
+
+	@Override
+	public void create() {
+		Array<FileHandle> images = new Array<FileHandle>();
+		for (FileHandle dir : Gdx.files.local(LEVELS_DIR).list()) {
+			if (!dir.isDirectory()) continue;
+
+			for (FileHandle file : dir.list(".png")) {
+				FileHandle output = compressedFile(file);
+				if (force || !output.exists() || output.lastModified() < file.lastModified()) {
+					images.add(file);
+				}
+			}
+		}
+
+		long start = System.currentTimeMillis();
+		long pngBytes = 0, compressedBytes = 0;
+
+		// ETC1-кодер медленный, а картинки независимы
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			Array<Future<Long>> results = new Array<Future<Long>>();
+			for (final FileHandle file : images) {
+				results.add(executor.submit(new Callable<Long>() {
+					@Override
+					public Long call() {
+						return compress(file, compressedFile(file));
+					}
+				}));
+			}
+			for (int i = 0; i < images.size; i++) {
+				pngBytes += images.get(i).length();
+				compressedBytes += results.get(i).get();
+			}
+		} catch (Exception e) {
+			throw new GdxRuntimeException("Error compressing textures", e);
+		} finally {
+			executor.shutdown();
+		}
+
+		System.out.println(images.size + " images compressed in " + (System.currentTimeMillis() - start) + " ms, "
+				+ pngBytes / 1024 + " KB png -> " + compressedBytes / 1024 + " KB zktx");
+		Gdx.app.exit();
+	}
+
+	private static FileHandle compressedFile(FileHandle png) {
+		return png.sibling(png.nameWithoutExtension() + TextureFormats.COMPRESSED_EXTENSION);
+	}
+
+	/**
+	 * @return размер записанного файла
+	 */
+	private static long compress(FileHandle input, FileHandle output) {
+		Pixmap source = new Pixmap(input);
+		int width = source.getWidth();
+		int height = source.getHeight();
+
+		Pixmap rgb = new Pixmap(width, height, Pixmap.Format.RGB888);
+		rgb.setBlending(Pixmap.Blending.None);
+		rgb.drawPixmap(source, 0, 0);
+		Pixmap alpha = extractAlpha(source);
+		source.dispose();
+
+		// Полная цепочка мипмапов для текстуры width x 2*height
+		int levels = 1;
+		while ((Math.max(width, height * 2) >> levels) > 0) levels++;
+
+		Array<ByteBuffer> data = new Array<ByteBuffer>();
+		for (int level = 0; level < levels; level++) {
+			int levelWidth = Math.max(1, width >> level);
+			int levelHeight = Math.max(1, (height * 2) >> level);
+			int top = Math.max(1, levelHeight / 2);
+
+			Pixmap image = new Pixmap(levelWidth, levelHeight, Pixmap.Format.RGB888);
+			image.setBlending(Pixmap.Blending.None);
+			image.setFilter(Pixmap.Filter.BiLinear);
+			image.drawPixmap(rgb, 0, 0, width, height, 0, 0, levelWidth, top);
+			if (levelHeight > top) {
+				image.drawPixmap(alpha, 0, 0, width, height, 0, top, levelWidth, levelHeight - top);
+			}
+
+			ETC1.ETC1Data etc = ETC1.encodeImage(image);
+			ByteBuffer bytes = ByteBuffer.allocate(etc.compressedData.capacity() - etc.dataOffset);
+			etc.compressedData.position(etc.dataOffset);
+			bytes.put(etc.compressedData);
+			bytes.flip();
+			data.add(bytes);
+
+			etc.dispose();
+			image.dispose();
+		}
+		rgb.dispose();
+		alpha.dispose();
+
+		writeZktx(output, width, height * 2, data);
+		return output.length();
+	}
+
+	/**
+	 * Альфа картинки в оттенках серого
+	 */
+	private static Pixmap extractAlpha(Pixmap source) {
+		Pixmap rgba = source;
+		if (source.getFormat() != Pixmap.Format.RGBA8888) {
+			rgba = new Pixmap(source.getWidth(), source.getHeight(), Pixmap.Format.RGBA8888);
+			rgba.setBlending(Pixmap.Blending.None);
+			rgba.drawPixmap(source, 0, 0);
+		}
+
+		Pixmap alpha = new Pixmap(source.getWidth(), source.getHeight(), Pixmap.Format.RGB888);
+		ByteBuffer in = rgba.getPixels();
+		ByteBuffer out = alpha.getPixels();
+		int pixels = source.getWidth() * source.getHeight();
+		for (int i = 0; i < pixels; i++) {
+			byte a = in.get(i * 4 + 3);
+			out.put(i * 3, a);
+			out.put(i * 3 + 1, a);
+			out.put(i * 3 + 2, a);
+		}
+
+		if (rgba != source) rgba.dispose();
+		return alpha;
+	}
+
+	/**
+	 * KTX с ETC1 и всеми уровнями мипмапов, упакованный так, как его читает KTXTextureData:
+	 * GZIP от (int длина, KTX)
+	 */
+	private static void writeZktx(FileHandle output, int width, int height, Array<ByteBuffer> levels) {
+		int size = KTX_IDENTIFIER.length + 13 * 4;
+		for (ByteBuffer level : levels) {
+			size += 4 + (level.remaining() + 3) / 4 * 4;
+		}
+
+		ByteBuffer ktx = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		ktx.put(KTX_IDENTIFIER);
+		ktx.putInt(0x04030201); // endianness
+		ktx.putInt(0);          // glType: сжатый формат
+		ktx.putInt(1);          // glTypeSize
+		ktx.putInt(0);          // glFormat
+		ktx.putInt(ETC1.ETC1_RGB8_OES);
+		ktx.putInt(GL_RGB);
+		ktx.putInt(width);
+		ktx.putInt(height);
+		ktx.putInt(0);          // pixelDepth
+		ktx.putInt(0);          // numberOfArrayElements
+		ktx.putInt(1);          // numberOfFaces
+		ktx.putInt(levels.size);
+		ktx.putInt(0);          // bytesOfKeyValueData
+
+		for (ByteBuffer level : levels) {
+			int length = level.remaining();
+			ktx.putInt(length);
+			ktx.put(level);
+			for (int i = length; i % 4 != 0; i++) {
+				ktx.put((byte) 0);
+			}
+		}
+
+		try {
+			DataOutputStream out = new DataOutputStream(new GZIPOutputStream(output.write(false)));
+			out.writeInt(size);
+			out.write(ktx.array());
+			out.close();
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Error writing " + output.path(), e);
+		}
+	}
+
+	public static void main(String[] args) {
+		boolean force = args.length > 0 && args[0].equals("force");
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1;
+		new HeadlessApplication(new TextureCompiler(force), config);
+	}
+}